@@ -0,0 +1,58 @@
+package com.nostalactites;
+
+import java.util.Map;
+import net.runelite.api.GameState;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.GameStateChanged;
+
+/**
+ * Shared helpers for driving the plugin against a {@link FakeScene} in benchmarks.
+ */
+final class BenchmarkStates
+{
+    static final int BASE_X = 2560;
+    static final int BASE_Y = 9984;
+    static final double STALACTITE_DENSITY = 0.02;
+    static final long SEED = 42L;
+
+    private BenchmarkStates()
+    {
+    }
+
+    static FakeScene scene(int size, double columnDensity)
+    {
+        return new FakeScene(size, BASE_X, BASE_Y, columnDensity, STALACTITE_DENSITY, SEED);
+    }
+
+    static NoStalactitesPlugin startedPlugin(FakeClient client, Map<String, Object> config)
+    {
+        NoStalactitesPlugin plugin = client.newPlugin(config);
+        plugin.startUp();
+        client.awaitStartUp(plugin);
+        runSweep(client, plugin);
+        return plugin;
+    }
+
+    /**
+     * Runs the pending scene sweep to completion, including any parallel scan.
+     */
+    static void runSweep(FakeClient client, NoStalactitesPlugin plugin)
+    {
+        while (plugin.isSweepPending())
+        {
+            plugin.onBeforeRender(BeforeRender.INSTANCE);
+            client.runPendingInvokes();
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Simulates the start of a scene load, which drops per-scene state and replacements.
+     */
+    static void beginSceneLoad(NoStalactitesPlugin plugin)
+    {
+        GameStateChanged event = new GameStateChanged();
+        event.setGameState(GameState.LOADING);
+        plugin.onGameStateChanged(event);
+    }
+}
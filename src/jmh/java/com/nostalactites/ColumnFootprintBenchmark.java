@@ -0,0 +1,62 @@
+package com.nostalactites;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import net.runelite.api.GameObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code recordColumnFootprint} over every column of a scene.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnFootprintBenchmark
+{
+    @Param({"104", "184"})
+    public int sceneSize;
+
+    @Param({"0.01", "0.05"})
+    public double columnDensity;
+
+    private NoStalactitesPlugin plugin;
+    private List<GameObject> columns;
+
+    @Setup
+    public void setUp()
+    {
+        FakeClient client = new FakeClient(BenchmarkStates.scene(sceneSize, columnDensity));
+        plugin = client.newPlugin(Map.of());
+        plugin.startUp();
+        client.awaitStartUp(plugin);
+        columns = client.getScene().getGameObjects().stream()
+            .filter(go -> go.getId() == FakeScene.COLUMN_ID)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long recordFootprints()
+    {
+        long acc = 0;
+        for (GameObject go : columns)
+        {
+            acc += plugin.recordColumnFootprint(go);
+        }
+        return acc;
+    }
+}
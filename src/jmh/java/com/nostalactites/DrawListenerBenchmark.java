@@ -0,0 +1,86 @@
+package com.nostalactites;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Renderable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the draw listener over every renderable a hidden scene held when it loaded: the
+ * per-frame price of the draw listener engine. With the scene engine nothing is tracked and
+ * the listener returns immediately, which is its cost while registered but idle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawListenerBenchmark
+{
+    @Param({"104", "184"})
+    public int sceneSize;
+
+    @Param({"0.01", "0.05"})
+    public double columnDensity;
+
+    @Param({"SCENE", "DRAW_LISTENER"})
+    public HidingEngine engine;
+
+    private FakeClient client;
+    private NoStalactitesPlugin plugin;
+    private Renderable[] renderables;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        client = new FakeClient(BenchmarkStates.scene(sceneSize, columnDensity));
+        plugin = BenchmarkStates.startedPlugin(client, Map.of("sweepBudget", 0));
+        Fakes.inject(plugin, "drawHiding", engine == HidingEngine.DRAW_LISTENER);
+        client.getScene().reset();
+        BenchmarkStates.beginSceneLoad(plugin);
+        plugin.applyHidingToScene();
+        BenchmarkStates.runSweep(client, plugin);
+
+        List<Renderable> all = new ArrayList<>();
+        FakeScene scene = client.getScene();
+        for (GameObject obj : scene.getGameObjects())
+        {
+            all.add(obj.getRenderable());
+        }
+        for (GroundObject obj : scene.getGroundObjects())
+        {
+            all.add(obj.getRenderable());
+        }
+        renderables = all.toArray(new Renderable[0]);
+    }
+
+    @Benchmark
+    public int drawFrame()
+    {
+        int drawn = 0;
+        for (Renderable renderable : renderables)
+        {
+            if (plugin.shouldDraw(renderable, false))
+            {
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+}
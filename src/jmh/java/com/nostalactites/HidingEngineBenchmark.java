@@ -0,0 +1,68 @@
+package com.nostalactites;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of hiding a freshly loaded scene with each hiding engine: removing
+ * objects from the scene, or tracking them for the renderable draw listener.
+ * See {@link DrawListenerBenchmark} for the per-frame side.
+ * <p>
+ * The listener is registered through {@code Hooks}, which cannot be built outside the
+ * client, so the engine flag is set on the plugin directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HidingEngineBenchmark
+{
+    @Param({"104", "184"})
+    public int sceneSize;
+
+    @Param({"0.01", "0.05"})
+    public double columnDensity;
+
+    @Param({"SCENE", "DRAW_LISTENER"})
+    public HidingEngine engine;
+
+    private FakeClient client;
+    private NoStalactitesPlugin plugin;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        client = new FakeClient(BenchmarkStates.scene(sceneSize, columnDensity));
+        plugin = BenchmarkStates.startedPlugin(client, Map.of("sweepBudget", 0));
+        Fakes.inject(plugin, "drawHiding", engine == HidingEngine.DRAW_LISTENER);
+    }
+
+    @Setup(Level.Invocation)
+    public void reloadScene()
+    {
+        client.getScene().reset();
+        BenchmarkStates.beginSceneLoad(plugin);
+        plugin.applyHidingToScene();
+    }
+
+    @Benchmark
+    public int hide()
+    {
+        BenchmarkStates.runSweep(client, plugin);
+        return client.getScene().getRemovals();
+    }
+}
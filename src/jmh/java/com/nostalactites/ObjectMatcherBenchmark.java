@@ -0,0 +1,96 @@
+package com.nostalactites;
+
+import com.google.gson.Gson;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the hidden-ID lookup over a stream of object IDs, against a boxed set baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectMatcherBenchmark
+{
+    private static final int IDS = 4096;
+
+    /**
+     * Share of looked-up IDs that are targets.
+     */
+    @Param({"0.0", "0.05", "0.5"})
+    public double hitRate;
+
+    private int[] ids;
+    private ObjectMatcher matcher;
+    private Set<Integer> hashSet;
+
+    @Setup
+    public void setUp()
+    {
+        NoStalactitesConfig config = Fakes.config(Map.of());
+        List<ObjectRule> rules = new ObjectRuleCatalog(new Gson()).allRules();
+        matcher = CompiledObjectMatcher.compile(rules, config);
+        hashSet = new HashSet<>();
+        for (ObjectRule rule : rules)
+        {
+            if ((rule.flags(config) & ObjectMatcher.HIDE) != 0)
+            {
+                for (int id : rule.ids())
+                {
+                    hashSet.add(id);
+                }
+            }
+        }
+
+        int[] targets = hashSet.stream().mapToInt(Integer::intValue).toArray();
+        Random random = new Random(BenchmarkStates.SEED);
+        ids = new int[IDS];
+        for (int i = 0; i < IDS; i++)
+        {
+            ids[i] = random.nextDouble() < hitRate ? targets[random.nextInt(targets.length)] : random.nextInt(50000);
+        }
+    }
+
+    @Benchmark
+    public int compiledMatcher()
+    {
+        int hits = 0;
+        for (int id : ids)
+        {
+            hits += matcher.match(id) & ObjectMatcher.HIDE;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int boxedHashSet()
+    {
+        int hits = 0;
+        for (int id : ids)
+        {
+            if (hashSet.contains(id))
+            {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
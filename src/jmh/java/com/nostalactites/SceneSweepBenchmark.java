@@ -0,0 +1,64 @@
+package com.nostalactites;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full {@code applyHidingToScene} sweep of a freshly loaded scene.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneSweepBenchmark
+{
+    @Param({"64", "104", "184"})
+    public int sceneSize;
+
+    @Param({"0.0", "0.01", "0.05"})
+    public double columnDensity;
+
+    @Param({"false", "true"})
+    public boolean parallelSweep;
+
+    private FakeClient client;
+    private NoStalactitesPlugin plugin;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        client = new FakeClient(BenchmarkStates.scene(sceneSize, columnDensity));
+        plugin = BenchmarkStates.startedPlugin(client, Map.of(
+            "sweepBudget", 0,
+            "parallelSweep", parallelSweep));
+    }
+
+    @Setup(Level.Invocation)
+    public void reloadScene()
+    {
+        client.getScene().reset();
+        BenchmarkStates.beginSceneLoad(plugin);
+    }
+
+    @Benchmark
+    public int sweep()
+    {
+        plugin.applyHidingToScene();
+        BenchmarkStates.runSweep(client, plugin);
+        return client.getScene().getRemovals();
+    }
+}
@@ -0,0 +1,63 @@
+package com.nostalactites;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code updateStalagmiteObjects} respawning every replacement after a scene reload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StalagmiteSpawnBenchmark
+{
+    @Param({"104", "184"})
+    public int sceneSize;
+
+    @Param({"0.01", "0.05"})
+    public double columnDensity;
+
+    /**
+     * One merged replacement per column instead of one per tile.
+     */
+    @Param({"false", "true"})
+    public boolean merged;
+
+    private NoStalactitesPlugin plugin;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        FakeClient client = new FakeClient(BenchmarkStates.scene(sceneSize, columnDensity));
+        plugin = BenchmarkStates.startedPlugin(client, Map.of("sweepBudget", 0, "mergeReplacements", merged));
+    }
+
+    @Setup(Level.Invocation)
+    public void releaseReplacements()
+    {
+        // Anchors are kept across a scene load; only the replacements are released
+        BenchmarkStates.beginSceneLoad(plugin);
+    }
+
+    @Benchmark
+    public int respawn()
+    {
+        plugin.updateStalagmiteObjects();
+        return plugin.getColumnAnchors().size();
+    }
+}
@@ -0,0 +1,377 @@
+package com.nostalactites;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Column anchors by map region, persisted between sessions so replacements can be placed
+ * as soon as a known region loads.
+ * <p>
+ * The cache lives in two files that are written alternately, so a write that is cut short
+ * still leaves the previous file to fall back on. Each file holds a header, a table of
+ * regions sorted by ID, and two bytes per anchor. The header has a format version, the game
+ * cache revision, a fingerprint of the object rules and a generation number. The newest
+ * file whose revision and fingerprint match and whose table fits the file is read into
+ * memory on first use, and regions are decoded from it on demand.
+ * <p>
+ * Several clients may share the cache directory. Files are never mapped or written in
+ * place: a write goes to a temporary file that is atomically moved over the older of the
+ * two, under a lock on the directory's lock file.
+ * <p>
+ * {@link #get}, {@link #put} and {@link #encode} must only be used on the client thread;
+ * {@link #write} may run on any thread.
+ */
+@Slf4j
+final class AnchorDiskCache
+{
+    private static final int MAGIC = 0x4E53544C;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int GENERATION_OFFSET = 16;
+    private static final int ENTRY_SIZE = 12;
+    private static final String[] FILES = {"anchors.0.bin", "anchors.1.bin"};
+    private static final String LOCK_FILE = "anchors.lock";
+
+    /**
+     * Serializes writes within this process, since a JVM may hold only one lock on a file.
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    private final Path directory;
+    private final int revision;
+    private final int fingerprint;
+
+    private boolean opened;
+    private ByteBuffer contents;
+    private int regionCount;
+
+    /**
+     * Regions updated since the last {@link #encode}; an empty array means the region has no
+     * anchors.
+     */
+    private final Map<Integer, long[]> updated = new TreeMap<>();
+
+    /**
+     * @param directory   the directory holding the cache files
+     * @param revision    the game cache revision the anchors were computed for
+     * @param fingerprint the {@link ObjectRuleCatalog#fingerprint()} of the rules in use
+     */
+    AnchorDiskCache(Path directory, int revision, int fingerprint)
+    {
+        this.directory = directory;
+        this.revision = revision;
+        this.fingerprint = fingerprint;
+    }
+
+    int getRevision()
+    {
+        return revision;
+    }
+
+    /**
+     * @param regionId the map region ID
+     * @return the cached anchors of the region in ascending order, or null if the region is
+     *         not cached
+     */
+    long[] get(int regionId)
+    {
+        long[] anchors = updated.get(regionId);
+        if (anchors != null)
+        {
+            return anchors;
+        }
+        open();
+        if (contents == null)
+        {
+            return null;
+        }
+
+        // Binary search the region table
+        int lo = 0;
+        int hi = regionCount - 1;
+        while (lo <= hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            int entry = HEADER_SIZE + mid * ENTRY_SIZE;
+            int id = contents.getInt(entry);
+            if (id < regionId)
+            {
+                lo = mid + 1;
+            }
+            else if (id > regionId)
+            {
+                hi = mid - 1;
+            }
+            else
+            {
+                return decode(regionId, contents.getInt(entry + 4), contents.getInt(entry + 8));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the anchors of a region, if they differ from the cached ones.
+     *
+     * @param regionId the map region ID
+     * @param anchors  the region's anchors in ascending order
+     */
+    void put(int regionId, long[] anchors)
+    {
+        long[] cached = get(regionId);
+        if (cached == null ? anchors.length == 0 : Arrays.equals(cached, anchors))
+        {
+            return;
+        }
+        updated.put(regionId, anchors);
+    }
+
+    /**
+     * @return true if regions were updated since the last {@link #encode}
+     */
+    boolean isDirty()
+    {
+        return !updated.isEmpty();
+    }
+
+    /**
+     * Encodes every cached region, so the file can be written off the client thread. The
+     * encoded contents then serve reads in place of the file.
+     *
+     * @return the file contents, with the generation left for {@link #write} to fill in
+     */
+    ByteBuffer encode()
+    {
+        open();
+        Map<Integer, long[]> regions = new TreeMap<>();
+        for (int i = 0; i < regionCount; i++)
+        {
+            int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            int id = contents.getInt(entry);
+            long[] anchors = decode(id, contents.getInt(entry + 4), contents.getInt(entry + 8));
+            if (anchors != null)
+            {
+                regions.put(id, anchors);
+            }
+        }
+        regions.putAll(updated);
+        regions.values().removeIf(anchors -> anchors.length == 0);
+
+        int anchorCount = 0;
+        for (long[] anchors : regions.values())
+        {
+            anchorCount += anchors.length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + regions.size() * ENTRY_SIZE + anchorCount * 2);
+        buf.putInt(MAGIC).putInt(FORMAT).putInt(revision).putInt(fingerprint)
+            .putLong(0).putInt(regions.size());
+        int offset = HEADER_SIZE + regions.size() * ENTRY_SIZE;
+        for (Map.Entry<Integer, long[]> region : regions.entrySet())
+        {
+            buf.putInt(region.getKey()).putInt(offset).putInt(region.getValue().length);
+            offset += region.getValue().length * 2;
+        }
+        for (long[] anchors : regions.values())
+        {
+            for (long anchor : anchors)
+            {
+                buf.putShort((short) ((AnchorIndex.plane(anchor) << 12) | ((AnchorIndex.x(anchor) & 63) << 6)
+                    | (AnchorIndex.y(anchor) & 63)));
+            }
+        }
+        buf.flip();
+        contents = buf;
+        regionCount = regions.size();
+        updated.clear();
+        return buf.asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes encoded contents over the older cache file, as a generation newer than either.
+     *
+     * @param encoded the result of {@link #encode}
+     */
+    void write(ByteBuffer encoded)
+    {
+        synchronized (WRITE_LOCK)
+        {
+            Path temp = null;
+            try
+            {
+                Files.createDirectories(directory);
+                try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = lockChannel.lock())
+                {
+                    // Another client may have written since this one read the cache
+                    long generation0 = readGeneration(directory.resolve(FILES[0]));
+                    long generation1 = readGeneration(directory.resolve(FILES[1]));
+                    Path file = directory.resolve(FILES[generation0 <= generation1 ? 0 : 1]);
+
+                    ByteBuffer generation = ByteBuffer.allocate(8);
+                    generation.putLong(0, Math.max(Math.max(generation0, generation1), 0) + 1);
+                    temp = Files.createTempFile(directory, "anchors", ".tmp");
+                    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+                    {
+                        ByteBuffer out = encoded.duplicate();
+                        while (out.hasRemaining())
+                        {
+                            channel.write(out);
+                        }
+                        while (generation.hasRemaining())
+                        {
+                            channel.write(generation, GENERATION_OFFSET + generation.position());
+                        }
+                    }
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    temp = null;
+                    log.debug("Wrote column anchor cache {}", file);
+                }
+            }
+            catch (IOException e)
+            {
+                log.warn("Unable to write column anchor cache in {}: {}", directory, e.getMessage());
+            }
+            finally
+            {
+                if (temp != null)
+                {
+                    try
+                    {
+                        Files.deleteIfExists(temp);
+                    }
+                    catch (IOException e)
+                    {
+                        log.debug("Unable to delete {}: {}", temp, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the newest valid cache file, once. Called on first use, or ahead of time on
+     * another thread before the cache is handed to the client thread.
+     */
+    void open()
+    {
+        if (opened)
+        {
+            return;
+        }
+        opened = true;
+        long newest = -1;
+        for (String name : FILES)
+        {
+            Path file = directory.resolve(name);
+            if (!Files.isRegularFile(file))
+            {
+                continue;
+            }
+            try
+            {
+                ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+                if (!isValid(buf))
+                {
+                    log.debug("Ignoring unreadable column anchor cache {}", file);
+                    continue;
+                }
+                if (buf.getInt(8) != revision || buf.getInt(12) != fingerprint)
+                {
+                    // Anchors from another game revision or other rules may be wrong
+                    continue;
+                }
+                long fileGeneration = buf.getLong(GENERATION_OFFSET);
+                if (fileGeneration > newest)
+                {
+                    contents = buf;
+                    regionCount = buf.getInt(24);
+                    newest = fileGeneration;
+                }
+            }
+            catch (IOException e)
+            {
+                log.warn("Unable to read column anchor cache {}: {}", file, e.getMessage());
+            }
+        }
+        if (contents != null)
+        {
+            log.debug("Read column anchor cache with {} regions, generation {}", regionCount, newest);
+        }
+    }
+
+    /**
+     * Checks the header of a cache file and that every region of its table lies within it.
+     */
+    private static boolean isValid(ByteBuffer buf)
+    {
+        int size = buf.capacity();
+        if (size < HEADER_SIZE || buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT)
+        {
+            return false;
+        }
+        int count = buf.getInt(24);
+        if (count < 0 || (long) HEADER_SIZE + (long) count * ENTRY_SIZE > size)
+        {
+            return false;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            int offset = buf.getInt(entry + 4);
+            int anchors = buf.getInt(entry + 8);
+            if (offset < 0 || anchors < 0 || (long) offset + anchors * 2L > size)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the generation of a valid cache file of any revision, or -1 if there is none
+     */
+    private static long readGeneration(Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return -1;
+        }
+        try
+        {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            return isValid(buf) ? buf.getLong(GENERATION_OFFSET) : -1;
+        }
+        catch (IOException e)
+        {
+            return -1;
+        }
+    }
+
+    private long[] decode(int regionId, int offset, int count)
+    {
+        if (offset < 0 || count < 0 || (long) offset + count * 2L > contents.capacity())
+        {
+            return null;
+        }
+        int baseX = (regionId >> 8) << 6;
+        int baseY = (regionId & 0xFF) << 6;
+        long[] anchors = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            int packed = contents.getShort(offset + i * 2);
+            anchors[i] = AnchorIndex.pack(baseX | ((packed >> 6) & 63), baseY | (packed & 63), (packed >> 12) & 0x3);
+        }
+        return anchors;
+    }
+}
@@ -0,0 +1,424 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Region-partitioned store of column anchors and the replacement attached to each.
+ * <p>
+ * Anchors are world tiles packed into a {@code long} by {@link #pack(int, int, int)} and
+ * kept in a primitive open-addressing table per 64x64 map region, so whole regions can
+ * be evicted at once when the player leaves them. Must only be used on the client thread.
+ *
+ * @param <V> the type of replacement attached to an anchor
+ */
+final class AnchorIndex<V>
+{
+    /**
+     * Returned in place of an anchor when none could be determined.
+     */
+    static final long NO_ANCHOR = -1L;
+
+    /**
+     * Slots in a region's table when it is created; it doubles once three quarters are used.
+     */
+    static final int INITIAL_REGION_CAPACITY = 16;
+
+    /**
+     * Receives anchors during iteration.
+     *
+     * @param <V> the type of replacement attached to an anchor
+     */
+    interface Visitor<V>
+    {
+        /**
+         * @param anchor the packed anchor
+         * @param value  the replacement attached to it, or null if none has been spawned
+         */
+        void visit(long anchor, V value);
+    }
+
+    private final Map<Integer, Region<V>> regions = new HashMap<>();
+    private int size;
+
+    /**
+     * Packs a world tile into a single long.
+     *
+     * @param x     the world x coordinate
+     * @param y     the world y coordinate
+     * @param plane the plane
+     * @return the packed anchor
+     */
+    static long pack(int x, int y, int plane)
+    {
+        return ((long) (plane & 0x3) << 32) | ((long) (x & 0xFFFF) << 16) | (y & 0xFFFF);
+    }
+
+    static int x(long anchor)
+    {
+        return (int) (anchor >>> 16) & 0xFFFF;
+    }
+
+    static int y(long anchor)
+    {
+        return (int) anchor & 0xFFFF;
+    }
+
+    static int plane(long anchor)
+    {
+        return (int) (anchor >>> 32) & 0x3;
+    }
+
+    /**
+     * @param anchor the packed anchor
+     * @return the ID of the map region containing the anchor
+     */
+    static int regionId(long anchor)
+    {
+        return ((x(anchor) >> 6) << 8) | (y(anchor) >> 6);
+    }
+
+    /**
+     * Spreads an anchor over the slots of a region's table.
+     *
+     * @param anchor the packed anchor
+     * @return the hash, whose low bits pick the anchor's home slot
+     */
+    static int hash(long anchor)
+    {
+        long h = anchor * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Adds an anchor without a replacement.
+     *
+     * @param anchor the packed anchor
+     * @return true if the anchor was not already present
+     */
+    boolean add(long anchor)
+    {
+        Region<V> region = regions.computeIfAbsent(regionId(anchor), r -> new Region<>());
+        if (region.add(anchor))
+        {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param anchor the packed anchor
+     * @return the replacement attached to the anchor, or null if there is none
+     */
+    V get(long anchor)
+    {
+        Region<V> region = regions.get(regionId(anchor));
+        if (region == null)
+        {
+            return null;
+        }
+        int slot = region.indexOf(anchor);
+        return slot >= 0 ? region.values[slot] : null;
+    }
+
+    /**
+     * Attaches a replacement to an anchor that is already present.
+     *
+     * @param anchor the packed anchor
+     * @param value  the replacement, or null to detach
+     * @return the previously attached replacement
+     */
+    V set(long anchor, V value)
+    {
+        Region<V> region = regions.get(regionId(anchor));
+        int slot = region != null ? region.indexOf(anchor) : -1;
+        if (slot < 0)
+        {
+            return null;
+        }
+        V prev = region.values[slot];
+        region.values[slot] = value;
+        return prev;
+    }
+
+    /**
+     * Removes an anchor.
+     *
+     * @param anchor  the packed anchor
+     * @param onValue receives the replacement that was attached, if any
+     * @return true if the anchor was present
+     */
+    boolean remove(long anchor, Consumer<V> onValue)
+    {
+        int regionId = regionId(anchor);
+        Region<V> region = regions.get(regionId);
+        if (region == null)
+        {
+            return false;
+        }
+        int slot = region.indexOf(anchor);
+        if (slot < 0)
+        {
+            return false;
+        }
+        V value = region.values[slot];
+        region.removeAt(slot);
+        size--;
+        if (region.size == 0)
+        {
+            regions.remove(regionId);
+        }
+        if (value != null)
+        {
+            onValue.accept(value);
+        }
+        return true;
+    }
+
+    /**
+     * Visits every anchor. The visitor may {@link #set} values but must not add or remove anchors.
+     *
+     * @param visitor receives each anchor and its replacement
+     */
+    void forEach(Visitor<V> visitor)
+    {
+        for (Region<V> region : regions.values())
+        {
+            region.forEach(visitor);
+        }
+    }
+
+    /**
+     * Visits the anchors of a single map region, with the same restrictions as {@link #forEach}.
+     *
+     * @param regionId the map region ID
+     * @param visitor  receives each anchor in the region and its replacement
+     */
+    void forEachInRegion(int regionId, Visitor<V> visitor)
+    {
+        Region<V> region = regions.get(regionId);
+        if (region != null)
+        {
+            region.forEach(visitor);
+        }
+    }
+
+    /**
+     * @param regionId the map region ID
+     * @return the anchors of the region in ascending order, empty if it has none
+     */
+    long[] anchorsInRegion(int regionId)
+    {
+        Region<V> region = regions.get(regionId);
+        if (region == null)
+        {
+            return new long[0];
+        }
+        long[] anchors = new long[region.size];
+        int n = 0;
+        for (long key : region.keys)
+        {
+            if (key != Region.EMPTY)
+            {
+                anchors[n++] = key;
+            }
+        }
+        Arrays.sort(anchors);
+        return anchors;
+    }
+
+    /**
+     * Detaches every replacement while keeping the anchors.
+     *
+     * @param onValue receives each replacement that was attached
+     */
+    void clearValues(Consumer<V> onValue)
+    {
+        for (Region<V> region : regions.values())
+        {
+            region.clearValues(onValue);
+        }
+    }
+
+    /**
+     * Drops every region that is not retained, along with its anchors and replacements.
+     *
+     * @param keep    returns true for region IDs that should be retained
+     * @param onValue receives each replacement that was attached to an evicted anchor
+     * @return the number of anchors evicted
+     */
+    int evictRegions(IntPredicate keep, Consumer<V> onValue)
+    {
+        int evicted = 0;
+        Iterator<Map.Entry<Integer, Region<V>>> it = regions.entrySet().iterator();
+        while (it.hasNext())
+        {
+            Map.Entry<Integer, Region<V>> entry = it.next();
+            if (keep.test(entry.getKey()))
+            {
+                continue;
+            }
+            Region<V> region = entry.getValue();
+            region.clearValues(onValue);
+            evicted += region.size;
+            it.remove();
+        }
+        size -= evicted;
+        return evicted;
+    }
+
+    /**
+     * Removes every anchor.
+     *
+     * @param onValue receives each replacement that was attached
+     */
+    void clear(Consumer<V> onValue)
+    {
+        clearValues(onValue);
+        regions.clear();
+        size = 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Linear-probing hash table of packed anchors within one map region.
+     */
+    private static final class Region<V>
+    {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = newKeys(INITIAL_REGION_CAPACITY);
+        private V[] values = newValues(INITIAL_REGION_CAPACITY);
+        private int size;
+
+        private static long[] newKeys(int capacity)
+        {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V[] newValues(int capacity)
+        {
+            return (V[]) new Object[capacity];
+        }
+
+        int indexOf(long key)
+        {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+            {
+                long k = keys[i];
+                if (k == key)
+                {
+                    return i;
+                }
+                if (k == EMPTY)
+                {
+                    return -1;
+                }
+            }
+        }
+
+        boolean add(long key)
+        {
+            if ((size + 1) * 4 > keys.length * 3)
+            {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+            {
+                long k = keys[i];
+                if (k == key)
+                {
+                    return false;
+                }
+                if (k == EMPTY)
+                {
+                    keys[i] = key;
+                    size++;
+                    return true;
+                }
+            }
+        }
+
+        void removeAt(int slot)
+        {
+            // Backward-shift deletion keeps probe chains intact without tombstones
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int i = (slot + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask)
+            {
+                int home = hash(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask))
+                {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = EMPTY;
+            values[hole] = null;
+            size--;
+        }
+
+        void forEach(Visitor<V> visitor)
+        {
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] != EMPTY)
+                {
+                    visitor.visit(keys[i], values[i]);
+                }
+            }
+        }
+
+        void clearValues(Consumer<V> onValue)
+        {
+            for (int i = 0; i < values.length; i++)
+            {
+                V value = values[i];
+                if (value != null)
+                {
+                    values[i] = null;
+                    onValue.accept(value);
+                }
+            }
+        }
+
+        private void resize(int capacity)
+        {
+            long[] oldKeys = keys;
+            V[] oldValues = values;
+            keys = newKeys(capacity);
+            values = newValues(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++)
+            {
+                long key = oldKeys[j];
+                if (key == EMPTY)
+                {
+                    continue;
+                }
+                int i = hash(key) & mask;
+                while (keys[i] != EMPTY)
+                {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nostalactites;
+
+/**
+ * An {@link ObjectMatcher} backed by a flat byte table indexed by object ID.
+ * <p>
+ * Lookups are a bounds check and an array read: no boxing, hashing or allocation.
+ * Instances are immutable and are replaced wholesale when the configuration changes,
+ * so they can be read from any thread.
+ */
+final class CompiledObjectMatcher implements ObjectMatcher
+{
+    /**
+     * A matcher that matches nothing.
+     */
+    static final CompiledObjectMatcher EMPTY = new CompiledObjectMatcher(new byte[0]);
+
+    private final byte[] table;
+    private final int allFlags;
+
+    private CompiledObjectMatcher(byte[] table)
+    {
+        this.table = table;
+        int flags = NONE;
+        for (byte b : table)
+        {
+            flags |= b;
+        }
+        this.allFlags = flags;
+    }
+
+    /**
+     * Compiles a set of rules against the current configuration.
+     *
+     * @param rules  the rules to compile
+     * @param config the plugin configuration
+     * @return the compiled matcher
+     */
+    static CompiledObjectMatcher compile(Iterable<? extends ObjectRule> rules, NoStalactitesConfig config)
+    {
+        int maxId = -1;
+        for (ObjectRule rule : rules)
+        {
+            if (rule.flags(config) == NONE)
+            {
+                continue;
+            }
+            for (int id : rule.ids())
+            {
+                maxId = Math.max(maxId, id);
+            }
+        }
+        if (maxId < 0)
+        {
+            return EMPTY;
+        }
+
+        byte[] table = new byte[maxId + 1];
+        for (ObjectRule rule : rules)
+        {
+            int flags = rule.flags(config);
+            if (flags == NONE)
+            {
+                continue;
+            }
+            for (int id : rule.ids())
+            {
+                if (id >= 0)
+                {
+                    table[id] |= (byte) flags;
+                }
+            }
+        }
+        return new CompiledObjectMatcher(table);
+    }
+
+    @Override
+    public int match(int id)
+    {
+        return id >= 0 && id < table.length ? table[id] : NONE;
+    }
+
+    @Override
+    public int maxId()
+    {
+        return table.length - 1;
+    }
+
+    @Override
+    public int allFlags()
+    {
+        return allFlags;
+    }
+}
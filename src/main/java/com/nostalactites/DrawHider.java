@@ -0,0 +1,186 @@
+package com.nostalactites;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Renderable;
+import net.runelite.api.TileObject;
+import net.runelite.api.WallObject;
+
+/**
+ * Hides objects at draw time instead of removing them from the scene.
+ * <p>
+ * Matched objects are tracked by the identity of their renderables, together with their
+ * object ID. The draw listener then costs one identity lookup per renderable and, for
+ * tracked ones, one matcher lookup, so swapping the matcher shows or hides every tracked
+ * object immediately. The client shares one model between placements of an object, so
+ * each renderable counts the tracked objects using it and stays hidden until the last
+ * of them is forgotten. Must only be used on the client thread.
+ */
+final class DrawHider
+{
+    private final Map<Renderable, Tracked> renderables = new IdentityHashMap<>();
+    private final Set<TileObject> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    void track(GameObject obj)
+    {
+        if (objects.add(obj))
+        {
+            track(obj.getRenderable(), obj.getId());
+        }
+    }
+
+    void track(GroundObject obj)
+    {
+        if (objects.add(obj))
+        {
+            track(obj.getRenderable(), obj.getId());
+        }
+    }
+
+    void track(WallObject obj)
+    {
+        if (objects.add(obj))
+        {
+            track(obj.getRenderable1(), obj.getId());
+            track(obj.getRenderable2(), obj.getId());
+        }
+    }
+
+    void track(DecorativeObject obj)
+    {
+        if (objects.add(obj))
+        {
+            track(obj.getRenderable(), obj.getId());
+            track(obj.getRenderable2(), obj.getId());
+        }
+    }
+
+    void forget(GameObject obj)
+    {
+        if (objects.remove(obj))
+        {
+            forget(obj.getRenderable());
+        }
+    }
+
+    void forget(GroundObject obj)
+    {
+        if (objects.remove(obj))
+        {
+            forget(obj.getRenderable());
+        }
+    }
+
+    void forget(WallObject obj)
+    {
+        if (objects.remove(obj))
+        {
+            forget(obj.getRenderable1());
+            forget(obj.getRenderable2());
+        }
+    }
+
+    void forget(DecorativeObject obj)
+    {
+        if (objects.remove(obj))
+        {
+            forget(obj.getRenderable());
+            forget(obj.getRenderable2());
+        }
+    }
+
+    /**
+     * Decides whether a renderable should be drawn.
+     *
+     * @param renderable the renderable about to be drawn
+     * @param matcher    the matcher in effect
+     * @return false if the renderable belongs to a tracked object the matcher hides
+     */
+    boolean isVisible(Renderable renderable, ObjectMatcher matcher)
+    {
+        if (renderables.isEmpty())
+        {
+            return true;
+        }
+        Tracked tracked = renderables.get(renderable);
+        return tracked == null || !matcher.isHidden(tracked.id);
+    }
+
+    /**
+     * Visits every tracked game object, for example to rebuild column anchors.
+     *
+     * @param consumer receives each tracked game object
+     */
+    void forEachGameObject(Consumer<GameObject> consumer)
+    {
+        for (TileObject obj : objects)
+        {
+            if (obj instanceof GameObject)
+            {
+                consumer.accept((GameObject) obj);
+            }
+        }
+    }
+
+    int size()
+    {
+        return renderables.size();
+    }
+
+    void clear()
+    {
+        renderables.clear();
+        objects.clear();
+    }
+
+    private void track(Renderable renderable, int id)
+    {
+        if (renderable == null)
+        {
+            return;
+        }
+        Tracked tracked = renderables.get(renderable);
+        if (tracked == null)
+        {
+            renderables.put(renderable, new Tracked(id));
+        }
+        else
+        {
+            tracked.id = id;
+            tracked.count++;
+        }
+    }
+
+    private void forget(Renderable renderable)
+    {
+        if (renderable == null)
+        {
+            return;
+        }
+        Tracked tracked = renderables.get(renderable);
+        if (tracked != null && --tracked.count == 0)
+        {
+            renderables.remove(renderable);
+        }
+    }
+
+    /**
+     * The object ID a renderable is drawn for and how many tracked objects use it.
+     */
+    private static final class Tracked
+    {
+        int id;
+        int count = 1;
+
+        Tracked(int id)
+        {
+            this.id = id;
+        }
+    }
+}
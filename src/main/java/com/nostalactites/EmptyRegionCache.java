@@ -0,0 +1,87 @@
+package com.nostalactites;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers map regions that were loaded without containing a single matched object, so
+ * later scenes made up only of such regions can skip the plugin's work entirely.
+ * <p>
+ * A region is only learned once a scene has covered all of it; a region at the edge of a
+ * scene may still hold targets in the part that was not loaded. The cache must be cleared
+ * whenever the matcher starts matching more objects. Must only be used on the client thread.
+ */
+final class EmptyRegionCache
+{
+    private static final int REGION_SIZE = 64;
+
+    private final Set<Integer> regions = new HashSet<>();
+
+    /**
+     * @param sceneRegions the map regions of a scene
+     * @return true if every region is known to contain no matched objects
+     */
+    boolean coversAll(int[] sceneRegions)
+    {
+        if (sceneRegions == null || sceneRegions.length == 0 || regions.isEmpty())
+        {
+            return false;
+        }
+        for (int region : sceneRegions)
+        {
+            if (!regions.contains(region))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the regions a scene loaded in full as containing no matched objects.
+     *
+     * @param sceneRegions the map regions of the scene
+     * @param baseX        the world X of the scene's southwest corner
+     * @param baseY        the world Y of the scene's southwest corner
+     * @param sizeX        the width of the scene in tiles
+     * @param sizeY        the height of the scene in tiles
+     * @return the number of regions learned
+     */
+    int learn(int[] sceneRegions, int baseX, int baseY, int sizeX, int sizeY)
+    {
+        int learned = 0;
+        for (int region : sceneRegions)
+        {
+            if (isCovered(region, baseX, baseY, sizeX, sizeY) && regions.add(region))
+            {
+                learned++;
+            }
+        }
+        return learned;
+    }
+
+    /**
+     * @param region the map region ID
+     * @param baseX  the world X of the scene's southwest corner
+     * @param baseY  the world Y of the scene's southwest corner
+     * @param sizeX  the width of the scene in tiles
+     * @param sizeY  the height of the scene in tiles
+     * @return true if the scene covers all of the region
+     */
+    static boolean isCovered(int region, int baseX, int baseY, int sizeX, int sizeY)
+    {
+        int x = (region >> 8) * REGION_SIZE;
+        int y = (region & 0xFF) * REGION_SIZE;
+        return x >= baseX && y >= baseY && x + REGION_SIZE <= baseX + sizeX && y + REGION_SIZE <= baseY + sizeY;
+    }
+
+    int size()
+    {
+        return regions.size();
+    }
+
+    void clear()
+    {
+        regions.clear();
+    }
+}
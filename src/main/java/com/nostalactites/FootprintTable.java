@@ -0,0 +1,159 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.coords.LocalPoint;
+
+/**
+ * Footprint sizes of scene objects, by object ID and orientation.
+ * <p>
+ * Each footprint is read from the object definition the first time its ID and orientation
+ * are seen, with the width and length already swapped for odd quarter-turn orientations, and
+ * kept in a flat array indexed by {@code id * 4 + orientation}. Later lookups are a single
+ * array read. Definitions do not change while the plugin runs, so the table is only
+ * cleared on shutdown. Must only be used on the client thread.
+ */
+final class FootprintTable
+{
+    /**
+     * Footprint assumed for objects without a definition.
+     */
+    private static final int DEFAULT_SIZE = 2;
+
+    private static final int ORIENTATIONS = 4;
+    private static final int KNOWN = 1 << 16;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final Client client;
+
+    /**
+     * Packed footprints: the width in the low byte, the length in the next, and
+     * {@link #KNOWN} once filled.
+     */
+    private int[] footprints = new int[0];
+
+    FootprintTable(Client client)
+    {
+        this.client = client;
+    }
+
+    /**
+     * @param obj the game object
+     * @return the object's footprint, read with {@link #sizeX} and {@link #sizeY}
+     */
+    int get(GameObject obj)
+    {
+        // The orientation in quarter turns, as placed; getOrientation is an angle instead
+        return get(obj.getId(), (obj.getConfig() >> 6) & 3);
+    }
+
+    /**
+     * Finds the south-west tile of an object's footprint.
+     *
+     * @param obj    the game object
+     * @param chunks the translation of the object's scene
+     * @param plane  the plane whose chunks are translated
+     * @return the south-west tile, in world coordinates or template coordinates inside
+     *         instances and packed by {@link AnchorIndex#pack}, or {@link AnchorIndex#NO_ANCHOR}
+     *         if it is not part of the scene
+     */
+    long southWest(GameObject obj, InstanceChunkTable chunks, int plane)
+    {
+        LocalPoint lp = obj.getLocalLocation();
+        if (lp == null)
+        {
+            return AnchorIndex.NO_ANCHOR;
+        }
+        int footprint = get(obj);
+
+        // Larger objects are located on their NE tile; step back to the SW corner of the footprint
+        int neX = lp.getX() >>> 7;
+        int neY = lp.getY() >>> 7;
+        long ne = chunks.toWorld(neX, neY, plane);
+        long sw = chunks.toWorld(neX - (sizeX(footprint) - 1), neY - (sizeY(footprint) - 1), plane);
+        if (ne == AnchorIndex.NO_ANCHOR || sw == AnchorIndex.NO_ANCHOR)
+        {
+            return AnchorIndex.NO_ANCHOR;
+        }
+        // A rotated instance chunk turns the footprint, so take its lowest corner in world space
+        return AnchorIndex.pack(Math.min(AnchorIndex.x(sw), AnchorIndex.x(ne)),
+            Math.min(AnchorIndex.y(sw), AnchorIndex.y(ne)), AnchorIndex.plane(ne));
+    }
+
+    /**
+     * @param id          the object ID
+     * @param orientation the orientation in quarter turns, 0 to 3
+     * @return the footprint, read with {@link #sizeX} and {@link #sizeY}
+     */
+    int get(int id, int orientation)
+    {
+        int index = id * ORIENTATIONS + orientation;
+        if (index >= 0 && index < footprints.length)
+        {
+            int footprint = footprints[index];
+            if (footprint != 0)
+            {
+                return footprint;
+            }
+        }
+        return load(id, orientation, index);
+    }
+
+    /**
+     * @return the footprint's width along the x axis, in tiles
+     */
+    static int sizeX(int footprint)
+    {
+        return footprint & 0xFF;
+    }
+
+    /**
+     * @return the footprint's length along the y axis, in tiles
+     */
+    static int sizeY(int footprint)
+    {
+        return (footprint >> 8) & 0xFF;
+    }
+
+    void clear()
+    {
+        footprints = new int[0];
+    }
+
+    private int load(int id, int orientation, int index)
+    {
+        ObjectComposition oc = id >= 0 ? client.getObjectDefinition(id) : null;
+        if (oc == null)
+        {
+            // Not remembered, so the object is looked up again once its definition loads
+            return pack(DEFAULT_SIZE, DEFAULT_SIZE);
+        }
+        int sizeX = oc.getSizeX();
+        int sizeY = oc.getSizeY();
+        if ((orientation & 1) == 1)
+        {
+            int tmp = sizeX;
+            sizeX = sizeY;
+            sizeY = tmp;
+        }
+        int footprint = pack(sizeX, sizeY);
+        if (index >= footprints.length)
+        {
+            int capacity = Math.max(INITIAL_CAPACITY, footprints.length);
+            while (capacity <= index)
+            {
+                capacity *= 2;
+            }
+            footprints = Arrays.copyOf(footprints, capacity);
+        }
+        footprints[index] = footprint;
+        return footprint;
+    }
+
+    private static int pack(int sizeX, int sizeY)
+    {
+        return KNOWN | ((sizeY & 0xFF) << 8) | (sizeX & 0xFF);
+    }
+}
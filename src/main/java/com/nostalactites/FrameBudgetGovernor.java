@@ -0,0 +1,226 @@
+package com.nostalactites;
+
+/**
+ * Lowers replacement density while frames take longer than a budget, and raises it again
+ * once there is headroom.
+ * <p>
+ * Frame time is the time from the start of a frame to its drawing completing, less the
+ * plugin's own work in that frame, which showing fewer replacements would not save,
+ * smoothed over recent frames. The time between drawing one frame and starting the next is
+ * not counted, since it includes the client's frame limiter sleeping, and a budget below
+ * the limiter's period would otherwise never be met however little is drawn. Density
+ * drops a level once frames have been over budget for {@link #DEGRADE_AFTER_NANOS}, and
+ * rises a level once they have been below {@link #RESTORE_FRACTION} of the budget for the
+ * restore delay. Frames in between hold the current level. A level that has to be dropped
+ * again soon after it was restored doubles the restore delay, so the density does not
+ * flap around the budget. Intervals longer than {@link #MAX_FRAME_NANOS}, such as scene
+ * loads, are ignored. Must only be used on the client thread.
+ */
+final class FrameBudgetGovernor
+{
+    /**
+     * Objects shown per replacement at each level; merged replacements have only one.
+     */
+    private static final int[] PER_FOOTPRINT = {Integer.MAX_VALUE, 1, 1, 1};
+
+    /**
+     * Replacement radius in tiles at each level, or 0 for no limit.
+     */
+    private static final int[] RADIUS = {0, 0, 32, 16};
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long MAX_FRAME_NANOS = 250 * MILLIS;
+    private static final long DEGRADE_AFTER_NANOS = 1000 * MILLIS;
+    private static final long RESTORE_AFTER_NANOS = 5000 * MILLIS;
+    private static final long MAX_RESTORE_AFTER_NANOS = 80_000 * MILLIS;
+    private static final double RESTORE_FRACTION = 0.75;
+
+    /**
+     * Weight of the newest frame in the smoothed frame time.
+     */
+    private static final double SMOOTHING = 0.1;
+
+    private long budget;
+    private int level;
+
+    private long lastFrame;
+    private long drawnAt;
+    private long pluginTime;
+    private double frameTime;
+    private boolean measuring;
+
+    private long overSince;
+    private long underSince;
+    private long restoredAt;
+    private long restoreAfter = RESTORE_AFTER_NANOS;
+
+    /**
+     * @return true if a frame budget is set
+     */
+    boolean isEnabled()
+    {
+        return budget > 0;
+    }
+
+    /**
+     * Sets the budget. Clearing it goes back to full density.
+     *
+     * @param millis the frame time budget in milliseconds, or 0 to always show full density
+     */
+    void setBudget(int millis)
+    {
+        budget = Math.max(0, millis) * MILLIS;
+        if (budget == 0)
+        {
+            level = 0;
+            restoreAfter = RESTORE_AFTER_NANOS;
+        }
+        reset();
+    }
+
+    /**
+     * Forgets the frames measured so far, keeping the level. Called when a scene starts
+     * loading, since frames around a load say little about drawing the scene.
+     */
+    void reset()
+    {
+        measuring = false;
+        overSince = 0;
+        underSince = 0;
+    }
+
+    /**
+     * @return the density level, from 0 for full density up to {@link #getMaxLevel()}
+     */
+    int getLevel()
+    {
+        return level;
+    }
+
+    int getMaxLevel()
+    {
+        return RADIUS.length - 1;
+    }
+
+    /**
+     * @return the number of objects shown per replacement at the current level
+     */
+    int getPerFootprint()
+    {
+        return PER_FOOTPRINT[level];
+    }
+
+    /**
+     * @return the replacement radius in tiles at the current level, or 0 for no limit
+     */
+    int getRadius()
+    {
+        return RADIUS[level];
+    }
+
+    /**
+     * @return the smoothed frame time in nanoseconds, excluding the plugin's own work
+     */
+    long getFrameTime()
+    {
+        return (long) frameTime;
+    }
+
+    /**
+     * Adds to the plugin's own work in the current frame.
+     *
+     * @param nanos the time spent
+     */
+    void addPluginTime(long nanos)
+    {
+        pluginTime += nanos;
+    }
+
+    /**
+     * Marks the current frame as drawn. Called once drawing completes.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    void drawn(long now)
+    {
+        drawnAt = now;
+    }
+
+    /**
+     * Measures the frame that just ended and adjusts the level. Called at the start of
+     * every frame.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true if the level changed
+     */
+    boolean frame(long now)
+    {
+        long interval = now - lastFrame;
+        // A frame the client skipped drawing has no render time to measure
+        boolean drawn = drawnAt > lastFrame && drawnAt <= now;
+        long render = drawnAt - lastFrame - pluginTime;
+        lastFrame = now;
+        drawnAt = 0;
+        pluginTime = 0;
+        if (budget == 0)
+        {
+            return false;
+        }
+        if (!measuring || interval <= 0 || interval > MAX_FRAME_NANOS)
+        {
+            reset();
+            measuring = true;
+            frameTime = budget * RESTORE_FRACTION;
+            return false;
+        }
+        if (!drawn)
+        {
+            return false;
+        }
+
+        frameTime += (Math.max(0, render) - frameTime) * SMOOTHING;
+        if (frameTime > budget)
+        {
+            underSince = 0;
+            if (overSince == 0)
+            {
+                overSince = now;
+            }
+            else if (now - overSince >= DEGRADE_AFTER_NANOS && level < getMaxLevel())
+            {
+                if (restoredAt != 0 && now - restoredAt < restoreAfter)
+                {
+                    restoreAfter = Math.min(restoreAfter * 2, MAX_RESTORE_AFTER_NANOS);
+                }
+                else
+                {
+                    restoreAfter = RESTORE_AFTER_NANOS;
+                }
+                level++;
+                overSince = 0;
+                return true;
+            }
+        }
+        else if (frameTime < budget * RESTORE_FRACTION)
+        {
+            overSince = 0;
+            if (underSince == 0)
+            {
+                underSince = now;
+            }
+            else if (now - underSince >= restoreAfter && level > 0)
+            {
+                level--;
+                underSince = 0;
+                restoredAt = now;
+                return true;
+            }
+        }
+        else
+        {
+            overSince = 0;
+            underSince = 0;
+        }
+        return false;
+    }
+}
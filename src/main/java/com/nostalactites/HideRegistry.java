@@ -0,0 +1,141 @@
+package com.nostalactites;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Tile;
+
+/**
+ * Records every object the plugin has removed from the current scene, so a configuration
+ * change can put back exactly the objects that are no longer hidden.
+ * <p>
+ * Ground objects are restored in place by re-attaching them to their tile. There is no
+ * public API to re-insert a game object into the scene, so {@link #restore} reports those
+ * back to the caller, which can fall back to a scene reload. Must only be used on the
+ * client thread, and should be cleared whenever the scene is rebuilt.
+ */
+final class HideRegistry
+{
+    private final List<GameObject> gameObjects = new ArrayList<>();
+    private final List<Tile> groundTiles = new ArrayList<>();
+    private final List<GroundObject> groundObjects = new ArrayList<>();
+
+    void addGameObject(GameObject obj)
+    {
+        gameObjects.add(obj);
+    }
+
+    void addGroundObject(Tile tile, GroundObject obj)
+    {
+        groundTiles.add(tile);
+        groundObjects.add(obj);
+    }
+
+    /**
+     * Visits every removed game object, for example to rebuild column anchors.
+     *
+     * @param consumer receives each removed game object
+     */
+    void forEachGameObject(Consumer<GameObject> consumer)
+    {
+        gameObjects.forEach(consumer);
+    }
+
+    /**
+     * Restores every recorded object that the given matcher no longer hides.
+     *
+     * @param matcher the matcher now in effect
+     * @return the number of game objects that are no longer hidden but could not be restored in place
+     */
+    int restore(ObjectMatcher matcher)
+    {
+        int pending = 0;
+        for (int i = gameObjects.size() - 1; i >= 0; i--)
+        {
+            if (!matcher.isHidden(gameObjects.get(i).getId()))
+            {
+                pending++;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < groundObjects.size(); i++)
+        {
+            Tile tile = groundTiles.get(i);
+            GroundObject obj = groundObjects.get(i);
+            if (matcher.isHidden(obj.getId()))
+            {
+                groundTiles.set(kept, tile);
+                groundObjects.set(kept, obj);
+                kept++;
+            }
+            else if (tile.getGroundObject() == null)
+            {
+                tile.setGroundObject(obj);
+            }
+        }
+        truncate(groundTiles, kept);
+        truncate(groundObjects, kept);
+        return pending;
+    }
+
+    int size()
+    {
+        return gameObjects.size() + groundObjects.size();
+    }
+
+    int gameObjectCount()
+    {
+        return gameObjects.size();
+    }
+
+    int groundObjectCount()
+    {
+        return groundObjects.size();
+    }
+
+    /**
+     * Lists the distinct IDs of the objects recorded since the given counts, for diagnostics.
+     *
+     * @param gameObjectStart   the {@link #gameObjectCount()} to start from
+     * @param groundObjectStart the {@link #groundObjectCount()} to start from
+     * @return the sorted, comma separated IDs
+     */
+    String idsSince(int gameObjectStart, int groundObjectStart)
+    {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (int i = gameObjectStart; i < gameObjects.size(); i++)
+        {
+            ids.add(gameObjects.get(i).getId());
+        }
+        for (int i = groundObjectStart; i < groundObjects.size(); i++)
+        {
+            ids.add(groundObjects.get(i).getId());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Integer id : ids)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append(',');
+            }
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    void clear()
+    {
+        gameObjects.clear();
+        groundTiles.clear();
+        groundObjects.clear();
+    }
+
+    private static void truncate(List<?> list, int size)
+    {
+        list.subList(size, list.size()).clear();
+    }
+}
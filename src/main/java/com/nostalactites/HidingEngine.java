@@ -0,0 +1,31 @@
+package com.nostalactites;
+
+/**
+ * How hidden objects are kept out of view.
+ */
+public enum HidingEngine
+{
+    /**
+     * Objects are removed from the scene. Bringing game objects back requires a scene reload.
+     */
+    SCENE("Remove from scene"),
+
+    /**
+     * Objects stay in the scene and are skipped when drawn. Covers walls and decorations,
+     * and config changes take effect without a reload.
+     */
+    DRAW_LISTENER("Skip when drawing");
+
+    private final String name;
+
+    HidingEngine(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
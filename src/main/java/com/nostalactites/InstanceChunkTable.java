@@ -0,0 +1,321 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+import net.runelite.api.Scene;
+import net.runelite.api.WorldView;
+
+/**
+ * Translates between scene tiles and world tiles for one loaded scene, in both directions.
+ * <p>
+ * Inside instances, world tiles are the template tiles the scene was copied from, matching
+ * {@code WorldPoint.fromLocalInstance}: each 8x8 chunk of the scene maps to a template
+ * chunk, rotated back by its quarter turns. The chunk mapping is decoded once when the table is
+ * built, so translating a tile is plain arithmetic and does not allocate. Outside instances
+ * the translation is an offset by the scene's base. Must only be used on the client thread.
+ */
+final class InstanceChunkTable
+{
+    /**
+     * Returned in place of a scene tile when the world tile is not part of the scene.
+     */
+    static final int NO_TILE = -1;
+
+    private static final int CHUNK_SIZE = 8;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int PLANES = 4;
+    private static final int EMPTY = -1;
+
+    private final Scene scene;
+    private final boolean instance;
+    private final int baseX;
+    private final int baseY;
+    private final int sizeX;
+    private final int sizeY;
+
+    /**
+     * Instances only: the template chunk data of each scene chunk, by plane, x and y.
+     */
+    private final int chunksX;
+    private final int chunksY;
+    private final int[] templates;
+
+    /**
+     * Instances only: open-addressing table from a template chunk to the first scene chunk
+     * copied from it.
+     */
+    private final int[] inverseKeys;
+    private final int[] inverseValues;
+
+    private InstanceChunkTable(WorldView wv)
+    {
+        scene = wv.getScene();
+        baseX = wv.getBaseX();
+        baseY = wv.getBaseY();
+        sizeX = wv.getSizeX();
+        sizeY = wv.getSizeY();
+        int[][][] chunks = wv.isInstance() ? wv.getInstanceTemplateChunks() : null;
+        instance = chunks != null;
+        if (!instance)
+        {
+            chunksX = chunksY = 0;
+            templates = inverseKeys = inverseValues = null;
+            return;
+        }
+
+        chunksX = chunks[0].length;
+        chunksY = chunks[0][0].length;
+        templates = new int[PLANES * chunksX * chunksY];
+        Arrays.fill(templates, EMPTY);
+        inverseKeys = new int[Integer.highestOneBit(templates.length) << 2];
+        inverseValues = new int[inverseKeys.length];
+        Arrays.fill(inverseKeys, EMPTY);
+        for (int z = 0; z < PLANES && z < chunks.length; z++)
+        {
+            for (int cx = 0; cx < chunksX; cx++)
+            {
+                for (int cy = 0; cy < chunksY; cy++)
+                {
+                    int data = chunks[z][cx][cy];
+                    templates[(z * chunksX + cx) * chunksY + cy] = data;
+                    if (data != EMPTY)
+                    {
+                        putInverse(templateKey(templateChunkX(data), templateChunkY(data), templatePlane(data)),
+                            (cx << 16) | (cy << 8) | rotation(data));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the table for the scene a world view currently holds.
+     *
+     * @param wv the world view
+     * @return the table, or null if the view has no scene
+     */
+    static InstanceChunkTable build(WorldView wv)
+    {
+        return wv.getScene() != null ? new InstanceChunkTable(wv) : null;
+    }
+
+    /**
+     * @return the scene the table was built for
+     */
+    Scene getScene()
+    {
+        return scene;
+    }
+
+    /**
+     * @return true if the scene is an instance, whose tiles translate chunk by chunk
+     */
+    boolean isInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * @return the world x coordinate of the scene's south-west tile, outside instances
+     */
+    int getBaseX()
+    {
+        return baseX;
+    }
+
+    /**
+     * @return the world y coordinate of the scene's south-west tile, outside instances
+     */
+    int getBaseY()
+    {
+        return baseY;
+    }
+
+    /**
+     * Translates a scene tile to a world tile, or to its template tile inside instances.
+     *
+     * @param sceneX the scene x coordinate
+     * @param sceneY the scene y coordinate
+     * @param plane  the plane whose chunks are translated, which is the view's plane for
+     *               {@code WorldPoint.fromLocalInstance}
+     * @return the world tile packed by {@link AnchorIndex#pack}, or {@link AnchorIndex#NO_ANCHOR}
+     *         if an instance has no chunk there
+     */
+    long toWorld(int sceneX, int sceneY, int plane)
+    {
+        if (!instance)
+        {
+            return AnchorIndex.pack(baseX + sceneX, baseY + sceneY, plane);
+        }
+        int cx = sceneX >> 3;
+        int cy = sceneY >> 3;
+        if (sceneX < 0 || sceneY < 0 || cx >= chunksX || cy >= chunksY || plane < 0 || plane >= PLANES)
+        {
+            return AnchorIndex.NO_ANCHOR;
+        }
+        int data = templates[(plane * chunksX + cx) * chunksY + cy];
+        if (data == EMPTY)
+        {
+            return AnchorIndex.NO_ANCHOR;
+        }
+        int x = sceneX & CHUNK_MASK;
+        int y = sceneY & CHUNK_MASK;
+        int rx;
+        int ry;
+        switch (rotation(data))
+        {
+            case 1:
+                rx = CHUNK_MASK - y;
+                ry = x;
+                break;
+            case 2:
+                rx = CHUNK_MASK - x;
+                ry = CHUNK_MASK - y;
+                break;
+            case 3:
+                rx = y;
+                ry = CHUNK_MASK - x;
+                break;
+            default:
+                rx = x;
+                ry = y;
+                break;
+        }
+        return AnchorIndex.pack(templateChunkX(data) * CHUNK_SIZE + rx, templateChunkY(data) * CHUNK_SIZE + ry,
+            templatePlane(data));
+    }
+
+    /**
+     * Translates a world tile, or a template tile inside instances, back to a scene tile.
+     * A template chunk copied into the scene more than once translates to its first copy.
+     *
+     * @param x     the world x coordinate
+     * @param y     the world y coordinate
+     * @param plane the world plane
+     * @return the scene tile, read with {@link #sceneX} and {@link #sceneY}, or {@link #NO_TILE}
+     *         if the tile is not part of the scene
+     */
+    int toScene(int x, int y, int plane)
+    {
+        if (!instance)
+        {
+            int sx = x - baseX;
+            int sy = y - baseY;
+            if (sx < 0 || sy < 0 || sx >= sizeX || sy >= sizeY)
+            {
+                return NO_TILE;
+            }
+            return packTile(sx, sy);
+        }
+        int value = getInverse(templateKey(x >> 3, y >> 3, plane));
+        if (value == EMPTY)
+        {
+            return NO_TILE;
+        }
+        int u = x & CHUNK_MASK;
+        int v = y & CHUNK_MASK;
+        int sx;
+        int sy;
+        switch (value & 0x3)
+        {
+            case 1:
+                sx = v;
+                sy = CHUNK_MASK - u;
+                break;
+            case 2:
+                sx = CHUNK_MASK - u;
+                sy = CHUNK_MASK - v;
+                break;
+            case 3:
+                sx = CHUNK_MASK - v;
+                sy = u;
+                break;
+            default:
+                sx = u;
+                sy = v;
+                break;
+        }
+        return packTile(((value >>> 16) & 0xFF) * CHUNK_SIZE + sx, ((value >>> 8) & 0xFF) * CHUNK_SIZE + sy);
+    }
+
+    static int sceneX(int tile)
+    {
+        return tile & 0xFFFF;
+    }
+
+    static int sceneY(int tile)
+    {
+        return tile >>> 16;
+    }
+
+    private static int packTile(int sceneX, int sceneY)
+    {
+        return (sceneY << 16) | sceneX;
+    }
+
+    private static int rotation(int data)
+    {
+        return data >> 1 & 0x3;
+    }
+
+    private static int templateChunkX(int data)
+    {
+        return data >> 14 & 0x3FF;
+    }
+
+    private static int templateChunkY(int data)
+    {
+        return data >> 3 & 0x7FF;
+    }
+
+    private static int templatePlane(int data)
+    {
+        return data >> 24 & 0x3;
+    }
+
+    private static int templateKey(int chunkX, int chunkY, int plane)
+    {
+        return ((plane & 0x3) << 21) | ((chunkX & 0x3FF) << 11) | (chunkY & 0x7FF);
+    }
+
+    private void putInverse(int key, int value)
+    {
+        int mask = inverseKeys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            if (inverseKeys[i] == key)
+            {
+                // Keep the first scene chunk copied from this template
+                return;
+            }
+            if (inverseKeys[i] == EMPTY)
+            {
+                inverseKeys[i] = key;
+                inverseValues[i] = value;
+                return;
+            }
+        }
+    }
+
+    private int getInverse(int key)
+    {
+        int mask = inverseKeys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            int k = inverseKeys[i];
+            if (k == key)
+            {
+                return inverseValues[i];
+            }
+            if (k == EMPTY)
+            {
+                return EMPTY;
+            }
+        }
+    }
+
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
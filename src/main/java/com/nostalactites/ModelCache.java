@@ -0,0 +1,181 @@
+package com.nostalactites;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.Model;
+import net.runelite.api.ModelData;
+
+/**
+ * Bounded cache of lit replacement models, holding one pre-rotated variant per quarter turn.
+ * It also holds merged models that cover a whole 2x2 column footprint in one model, one per
+ * layout of tile rotations, shared by every anchor using that layout.
+ * <p>
+ * The cache lives for as long as the plugin is running and evicts the least recently used
+ * variant once full. It is warmed when the player logs in so spawning replacements only
+ * ever reads from it. Must only be used on the client thread.
+ */
+final class ModelCache
+{
+    /**
+     * Number of pre-rotated variants per model: 0, 90, 180 and 270 degrees.
+     */
+    static final int ROTATIONS = 4;
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static final int MERGED = Integer.MIN_VALUE;
+
+    /**
+     * Width of the footprint covered by a merged model, in tiles.
+     */
+    static final int FOOTPRINT = 2;
+
+    private final Map<Integer, Model> models = new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Model> eldest)
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final Client client;
+
+    ModelCache(Client client)
+    {
+        this.client = client;
+    }
+
+    private static int key(int modelId, int rotation)
+    {
+        return (modelId << 2) | (rotation & (ROTATIONS - 1));
+    }
+
+    /**
+     * Loads every rotation of a model that is not cached yet.
+     *
+     * @param modelId the model ID
+     * @return true if all rotations are now cached
+     */
+    boolean warm(int modelId)
+    {
+        ModelData data = null;
+        for (int rotation = 0; rotation < ROTATIONS; rotation++)
+        {
+            if (models.containsKey(key(modelId, rotation)))
+            {
+                continue;
+            }
+            if (data == null)
+            {
+                data = client.loadModelData(modelId);
+                if (data == null)
+                {
+                    return false;
+                }
+            }
+            models.put(key(modelId, rotation), rotate(data, rotation).light());
+        }
+        return true;
+    }
+
+    /**
+     * Gets a pre-rotated model, loading it on a miss.
+     *
+     * @param modelId  the model ID
+     * @param rotation the number of quarter turns counter-clockwise
+     * @return the model, or null if it could not be loaded
+     */
+    Model get(int modelId, int rotation)
+    {
+        Model model = models.get(key(modelId, rotation));
+        if (model == null && warm(modelId))
+        {
+            model = models.get(key(modelId, rotation));
+        }
+        return model;
+    }
+
+    /**
+     * Gets a merged model covering a 2x2 footprint, building it on a miss. Tile {@code k} of
+     * the footprint, in the order SW, NW, SE, NE, is rotated by {@code layout + k} quarter
+     * turns. The model is centred on the corner shared by the four tiles.
+     *
+     * @param modelId the model ID used on every tile
+     * @param layout  the rotation of the first tile
+     * @return the merged model, or null if it could not be loaded
+     */
+    Model getMerged(int modelId, int layout)
+    {
+        int key = MERGED | key(modelId, layout);
+        Model model = models.get(key);
+        if (model != null)
+        {
+            return model;
+        }
+
+        ModelData data = client.loadModelData(modelId);
+        if (data == null)
+        {
+            return null;
+        }
+        ModelData[] tiles = new ModelData[FOOTPRINT * FOOTPRINT];
+        int k = 0;
+        for (int dx = 0; dx < FOOTPRINT; dx++)
+        {
+            for (int dy = 0; dy < FOOTPRINT; dy++)
+            {
+                int rotation = (layout + k) & (ROTATIONS - 1);
+                ModelData tile = rotation == 0 ? data.cloneVertices() : rotate(data, rotation);
+                tiles[k++] = tile.translate(dx * 128 - 64, 0, dy * 128 - 64);
+            }
+        }
+        ModelData merged = client.mergeModels(tiles);
+        if (merged == null)
+        {
+            return null;
+        }
+        model = merged.light();
+        models.put(key, model);
+        return model;
+    }
+
+    /**
+     * Builds every merged layout of a model that is not cached yet.
+     *
+     * @param modelId the model ID
+     * @return true if all layouts are now cached
+     */
+    boolean warmMerged(int modelId)
+    {
+        for (int layout = 0; layout < ROTATIONS; layout++)
+        {
+            if (getMerged(modelId, layout) == null)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void clear()
+    {
+        models.clear();
+    }
+
+    private static ModelData rotate(ModelData data, int rotation)
+    {
+        switch (rotation & (ROTATIONS - 1))
+        {
+            case 1:
+                return data.cloneVertices().rotateY90Ccw();
+            case 2:
+                return data.cloneVertices().rotateY180Ccw();
+            case 3:
+                return data.cloneVertices().rotateY270Ccw();
+            default:
+                return data;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.nostalactites;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Range;
 
 /**
  * Configuration interface for the No Stalactites plugin.
@@ -58,6 +59,126 @@ public interface NoStalactitesConfig extends Config
         return true;
     }
     
+    /**
+     * The time the scene sweep may spend per frame when hiding objects in an already loaded scene.
+     * The sweep resumes on the next frame once the budget is used up.
+     *
+     * @return the per-frame budget in microseconds, or 0 to sweep the whole scene at once
+     */
+    @Range(max = 100000)
+    @ConfigItem(
+        keyName = "sweepBudget",
+        name = "Sweep budget (µs)",
+        description = "Time per frame spent hiding objects in an already loaded scene. 0 sweeps the whole scene at once"
+    )
+    default int sweepBudget()
+    {
+        return 1000;
+    }
+    
+    /**
+     * Determines whether scene sweeps match objects off the client thread.
+     * The client thread only copies object IDs and applies the resulting removals.
+     *
+     * @return true to scan a snapshot of the scene in parallel, false to use the time-sliced sweep
+     */
+    @ConfigItem(
+        keyName = "parallelSweep",
+        name = "Parallel sweep",
+        description = "Match objects in a snapshot of the scene on background threads instead of in time slices"
+    )
+    default boolean parallelSweep()
+    {
+        return false;
+    }
+    
+    /**
+     * How hidden objects are kept out of view.
+     * Skipping objects when drawing also covers walls and decorations and applies config
+     * changes without a reload, but the GPU renderer may draw static scenery without
+     * consulting draw listeners.
+     *
+     * @return the hiding engine
+     */
+    @ConfigItem(
+        keyName = "hidingEngine",
+        name = "Hiding method",
+        description = "Remove hidden objects from the scene, or keep them and skip them when drawing. "
+            + "Skipping also hides walls and decorations and applies changes without a reload, "
+            + "but may not affect static scenery drawn by the GPU plugin"
+    )
+    default HidingEngine hidingEngine()
+    {
+        return HidingEngine.SCENE;
+    }
+    
+    /**
+     * Determines whether the replacement for a column is drawn as one merged model instead of
+     * a separate object per tile.
+     *
+     * @return true to spawn a single merged replacement per column
+     */
+    @ConfigItem(
+        keyName = "mergeReplacements",
+        name = "Merge replacements",
+        description = "Draw each column's replacement rocks as a single model instead of one object per tile"
+    )
+    default boolean mergeReplacements()
+    {
+        return false;
+    }
+    
+    /**
+     * Limits replacement rocks to those near the player, so large caves do not draw every
+     * replacement in the scene.
+     *
+     * @return the radius in tiles, or 0 to show every replacement
+     */
+    @Range(max = 104)
+    @ConfigItem(
+        keyName = "replacementRadius",
+        name = "Replacement radius",
+        description = "Only show replacement rocks within this many tiles of the player. 0 shows all of them"
+    )
+    default int replacementRadius()
+    {
+        return 0;
+    }
+    
+    /**
+     * Shows fewer replacement objects while drawing a frame takes longer than this, first one
+     * object per column instead of four and then only the replacements near the player. Full
+     * density comes back once frames have stayed well within the budget for a while. Only the
+     * time spent drawing counts, not the frame limiter's wait for the next frame.
+     *
+     * @return the frame time budget in milliseconds, or 0 to always show every replacement object
+     */
+    @Range(max = 100)
+    @ConfigItem(
+        keyName = "frameBudget",
+        name = "Frame budget (ms)",
+        description = "Show fewer replacement rocks while drawing a frame takes longer than this, not counting the FPS limit's wait. 0 always shows all of them"
+    )
+    default int frameBudget()
+    {
+        return 0;
+    }
+    
+    /**
+     * Determines whether the plugin measures its own cost and shows it in an overlay.
+     *
+     * @return true to collect and show performance metrics
+     */
+    @ConfigItem(
+        keyName = "showMetrics",
+        name = "Show metrics",
+        description = "Show the plugin's per-second and per-scene-load cost in an overlay"
+    )
+    default boolean showMetrics()
+    {
+        return false;
+    }
+    
     /**
      * The model ID used for rock formations when replacing columns.
      * This is the base model ID for the decorative rock formation.
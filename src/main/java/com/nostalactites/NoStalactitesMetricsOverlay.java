@@ -0,0 +1,79 @@
+package com.nostalactites;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Overlay showing the plugin's own cost, over the last second and since the last scene load.
+ * Counters are shown as counts and timers in microseconds.
+ */
+class NoStalactitesMetricsOverlay extends OverlayPanel
+{
+    private final PluginMetrics metrics;
+    private final FrameBudgetGovernor governor;
+
+    @Inject
+    NoStalactitesMetricsOverlay(NoStalactitesPlugin plugin)
+    {
+        super(plugin);
+        this.metrics = plugin.getMetrics();
+        this.governor = plugin.getGovernor();
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        panelComponent.getChildren().add(TitleComponent.builder()
+            .text("No Stalactites")
+            .build());
+        panelComponent.getChildren().add(LineComponent.builder()
+            .left("per second / scene")
+            .right("load " + metrics.getSceneLoads())
+            .build());
+
+        long secondNanos = 0;
+        long sceneNanos = 0;
+        for (PluginMetrics.Metric metric : PluginMetrics.CLIENT_THREAD_TIMERS)
+        {
+            secondNanos += metrics.perSecond(metric);
+            sceneNanos += metrics.perScene(metric);
+        }
+        addLine("Client thread (µs)", secondNanos / 1000L, sceneNanos / 1000L);
+
+        for (PluginMetrics.Metric metric : PluginMetrics.Metric.values())
+        {
+            long second = metrics.perSecond(metric);
+            long scene = metrics.perScene(metric);
+            if (metric.timer)
+            {
+                addLine(metric.label + " (µs)", second / 1000L, scene / 1000L);
+            }
+            else
+            {
+                addLine(metric.label, second, scene);
+            }
+        }
+        if (governor.isEnabled())
+        {
+            panelComponent.getChildren().add(LineComponent.builder()
+                .left("Frame time (µs) / density")
+                .right(governor.getFrameTime() / 1000L + " / " + governor.getLevel())
+                .build());
+        }
+        return super.render(graphics);
+    }
+
+    private void addLine(String label, long second, long scene)
+    {
+        panelComponent.getChildren().add(LineComponent.builder()
+            .left(label)
+            .right(second + " / " + scene)
+            .build());
+    }
+}
@@ -1,35 +1,56 @@
 package com.nostalactites;
 
+import com.google.gson.Gson;
 import com.google.inject.Provides;
+import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.DecorativeObject;
 import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
 import net.runelite.api.Model;
-import net.runelite.api.ObjectComposition;
+import net.runelite.api.Player;
+import net.runelite.api.Renderable;
 import net.runelite.api.RuneLiteObject;
 import net.runelite.api.Scene;
 import net.runelite.api.Tile;
+import net.runelite.api.WallObject;
 import net.runelite.api.WorldView;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.DecorativeObjectDespawned;
 import net.runelite.api.events.DecorativeObjectSpawned;
+import net.runelite.api.events.GameObjectDespawned;
 import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.GroundObjectDespawned;
 import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.PreMapLoad;
+import net.runelite.api.events.WallObjectDespawned;
 import net.runelite.api.events.WallObjectSpawned;
+import net.runelite.api.events.WorldViewLoaded;
+import net.runelite.api.events.WorldViewUnloaded;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
+import net.runelite.client.callback.Hooks;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.api.GameState;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.ui.DrawManager;
+import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.api.coords.LocalPoint;
-import net.runelite.api.coords.WorldPoint;
+import com.nostalactites.PluginMetrics.Metric;
 
 /**
  * A RuneLite plugin that hides cave stalactites and columns, with an option to replace
@@ -58,461 +79,2120 @@ public class NoStalactitesPlugin extends Plugin
     @Inject
     private NoStalactitesConfig config;
 
+    @Inject
+    private OverlayManager overlayManager;
+
+    @Inject
+    private NoStalactitesMetricsOverlay metricsOverlay;
+
+    @Inject
+    private Gson gson;
+
+    @Inject
+    private Hooks hooks;
+
+    @Inject
+    private ScheduledExecutorService executor;
+
+    @Inject
+    private DrawManager drawManager;
+
+    /**
+     * Object rules by map region, compiled into {@link #matcher} for the loaded scene.
+     */
+    private ObjectRuleCatalog catalog;
+
+    /**
+     * The map regions {@link #matcher} was compiled for, or null before the first scene.
+     */
+    private volatile int[] sceneRegions;
+
+    /**
+     * Compiled lookup of which object IDs should be hidden, based on configuration and the
+     * rules for the loaded scene's regions. Replaced wholesale by {@link #rebuildHiddenIds()}.
+     */
+    private volatile ObjectMatcher matcher = CompiledObjectMatcher.EMPTY;
+
+    /**
+     * The rules {@link #matcher} was compiled from, so a scene whose regions bring no other
+     * rules keeps the matcher. Only used on the client thread.
+     */
+    private List<ObjectRule> matcherRules;
+
+    /**
+     * Counts matcher rebuilds, so a matcher compiled during startup is only installed if no
+     * config change replaced it in the meantime. Only written on the client thread.
+     */
+    private volatile int matcherVersion;
+
+    /**
+     * Counts starts and stops, so startup work still queued from an earlier run is dropped.
+     */
+    private volatile int runId;
+
+    /**
+     * Set on the client thread once startup preparation has finished. Until then the game
+     * state handlers leave the scene alone, and the startup steps apply the plugin to it.
+     */
+    private boolean started;
+
+    /**
+     * True from {@link #startUp()} until the startup steps have been scheduled to completion.
+     */
+    private volatile boolean startUpPending;
+
+    /**
+     * False while the loaded scene cannot contain any hidden object, either because no rule
+     * for its regions hides anything or because all of its regions are known to be empty.
+     * The spawn handlers and scene sweeps return immediately while it is false.
+     */
+    private volatile boolean sceneActive = true;
+
+    /**
+     * Objects matched by spawn events since the current scene started loading.
+     */
+    private int sceneMatches;
+
+    /**
+     * Regions known to contain no matched objects under the current rules.
+     */
+    private final EmptyRegionCache emptyRegions = new EmptyRegionCache();
+
+    /**
+     * State of the top-level world view. Anchors of regions the player has left are evicted
+     * once the next scene has loaded.
+     */
+    private final WorldViewState topLevel = new WorldViewState(WorldView.TOPLEVEL, this::hideOnTile);
+
+    /**
+     * State of each sub world view, created when the view appears and released when it is
+     * unloaded. There are rarely more than a handful, so they are searched linearly.
+     */
+    private final List<WorldViewState> subViews = new ArrayList<>();
+
+    /**
+     * Anchors recorded while draining a spawn batch; reused between drains.
+     */
+    private long[] pendingAnchors = new long[64];
+    private int pendingAnchorCount;
+
+    /**
+     * Objects hidden at draw time while the {@link HidingEngine#DRAW_LISTENER} engine is in use.
+     */
+    private final DrawHider drawHider = new DrawHider();
+
+    private final Hooks.RenderableDrawListener drawListener = this::shouldDraw;
+
+    /**
+     * True while matched objects are skipped by {@link #drawListener} instead of being removed
+     * from the scene.
+     */
+    private volatile boolean drawHiding;
+
+    /**
+     * The top-level scene snapshot being scanned off the client thread, if any. A result is only
+     * applied while its snapshot is still the pending one.
+     */
+    private SceneSnapshot pendingScan;
+
     /**
-     * Set of object IDs that should be hidden based on configuration.
+     * Objects removed from a scene before it went live, waiting to be recorded on the client
+     * thread once that scene is the loaded one.
      */
-    private final Set<Integer> hiddenIds = new HashSet<>();
+    private volatile ScenePreload pendingPreload;
 
     /**
-     * Tracks the southwest corner (anchor point) of each detected column footprint.
-     * Used for placing replacement stalagmite models.
+     * Set while the plugin itself removes objects from the scene, so the resulting despawn
+     * events are not mistaken for the game removing them.
      */
-    private final Set<WorldPoint> columnAnchors = new HashSet<>();
+    private boolean removingObjects;
+    
+    /**
+     * Pre-rotated replacement models. Survives reconciliation and scene changes, and is
+     * warmed when the player logs in.
+     */
+    private ModelCache modelCache;
+    
+    /**
+     * Deactivated replacement objects kept for reuse.
+     */
+    private RuneLiteObjectPool objectPool;
 
     /**
-     * Maps anchor points to their corresponding RuneLiteObject models for stalagmites.
-     * This allows us to manage the lifecycle of dynamically created objects.
+     * Object footprint sizes, read from each definition once.
      */
-    private final Map<WorldPoint, List<RuneLiteObject>> stalagmiteObjects = new HashMap<>();
+    private FootprintTable footprints;
     
     /**
-     * Cache for loaded models to avoid reloading them multiple times.
+     * Shows only the replacements within the configured radius of the player.
+     */
+    private final ReplacementLod replacementLod = new ReplacementLod();
+
+    /**
+     * Lowers replacement density while frames are over the configured budget.
+     */
+    private final FrameBudgetGovernor governor = new FrameBudgetGovernor();
+
+    /**
+     * Tells the {@link #governor} when drawing a frame completes; registered while a frame
+     * budget is set.
      */
-    private final Map<Integer, Model> modelCache = new HashMap<>();
+    private final Runnable frameDrawnListener = () -> governor.drawn(System.nanoTime());
+    private boolean frameListenerRegistered;
     
     /**
-     * Random number generator for varying model orientations.
+     * Rotation variant for the next replacement, cycling through the quarter turns.
+     */
+    private int rotationIndex = 0;
+
+    /**
+     * Hot path counters and timers, collected only while the metrics overlay is shown.
+     */
+    private final PluginMetrics metrics = new PluginMetrics();
+
+    /**
+     * Running totals of replacements spawned and released, reported as deltas in Flight
+     * Recorder events.
+     */
+    private int anchorsSpawned;
+    private int objectsSpawned;
+    private int objectsReleased;
+
+    /**
+     * Where {@link #anchorCache} keeps its files.
+     */
+    private File anchorCacheDirectory = new File(RuneLite.RUNELITE_DIR, "nostalactites");
+
+    /**
+     * Column anchors of the regions seen in earlier sessions, for the current game revision.
+     */
+    private AnchorDiskCache anchorCache;
+
+    /**
+     * Anchors placed from {@link #anchorCache} that no column has confirmed yet in this scene.
+     */
+    private final AnchorIndex<Void> unconfirmedAnchors = new AnchorIndex<>();
+
+    /**
+     * Set once cached anchors were placed for a scene, until the scene has settled and they
+     * have been checked against its columns. The check waits for startup to finish.
+     */
+    private boolean anchorCacheCheck;
+
+    /**
+     * The game state of the last {@link GameStateChanged} event.
      */
-    // Rotation values for rock placement (in 1/2048 units, 512 = 90 degrees)
-    private static final int ROTATION_90_DEG = 512;
-    private static final int[] ROTATIONS = {0, ROTATION_90_DEG, ROTATION_90_DEG * 2, ROTATION_90_DEG * 3};
-    private int rotationIndex = 0; // Track rotation for each object
+    private GameState lastGameState;
+
+    AnchorIndex<List<RuneLiteObject>> getColumnAnchors()
+    {
+        return topLevel.getColumnAnchors();
+    }
 
-    Set<WorldPoint> getColumnAnchors()
+    PluginMetrics getMetrics()
     {
-        return columnAnchors;
+        return metrics;
+    }
+
+    FrameBudgetGovernor getGovernor()
+    {
+        return governor;
     }
 
     /**
      * Called when the plugin is started.
-     * Initializes the plugin state and applies initial object hiding.
+     * Initializes the plugin state; the rules are prepared in the background and applied
+     * to the scene once the game is logged in.
      */
     @Override
     protected void startUp()
     {
-        rebuildHiddenIds();
-        columnAnchors.clear();
+        catalog = new ObjectRuleCatalog(gson);
+        modelCache = new ModelCache(client);
+        objectPool = new RuneLiteObjectPool(client);
+        footprints = new FootprintTable(client);
+        updateMetricsOverlay();
+        drawHiding = config.hidingEngine() == HidingEngine.DRAW_LISTENER;
+        if (drawHiding)
+        {
+            hooks.registerRenderableDrawListener(drawListener);
+        }
+        
+        // Parse the rules, compile the matcher and read the anchor cache off the client thread
+        final int run = ++runId;
+        startUpPending = true;
+        executor.execute(() -> prepareStartUp(run));
+        
+        log.info("No Stalactites started");
+    }
+
+    /**
+     * Does the startup work that does not need the client thread, then hands the results
+     * to it.
+     *
+     * @param run the {@link #runId} of the start
+     */
+    private void prepareStartUp(int run)
+    {
+        final int version = matcherVersion;
+        ObjectMatcher prepared = null;
+        AnchorDiskCache cache = null;
+        try
+        {
+            prepared = CompiledObjectMatcher.compile(catalog.rulesFor(null), config);
+            cache = new AnchorDiskCache(anchorCacheDirectory.toPath(), client.getRevision(), catalog.fingerprint());
+            cache.open();
+        }
+        catch (Exception e)
+        {
+            log.error("Error preparing rules: {}", e.getMessage(), e);
+        }
+        final ObjectMatcher compiled = prepared;
+        final AnchorDiskCache opened = cache;
+        clientThread.invokeLater(() -> finishStartUp(run, version, compiled, opened));
+    }
+
+    /**
+     * Installs the prepared matcher and anchor cache, then applies the plugin to the loaded
+     * scene if the game is logged in. Otherwise the login applies it.
+     */
+    private void finishStartUp(int run, int version, ObjectMatcher prepared, AnchorDiskCache cache)
+    {
+        if (run != runId)
+        {
+            return;
+        }
+        if (prepared == null)
+        {
+            rebuildHiddenIds();
+        }
+        else if (version == matcherVersion)
+        {
+            matcher = prepared;
+            matcherRules = catalog.rulesFor(null);
+        }
+        anchorCache = cache;
+        started = true;
+        replacementLod.setRadius(config.replacementRadius(), topLevel.getColumnAnchors());
+        setFrameBudget(config.frameBudget());
+        updateSceneActive();
+        runStartUpStep(run, 0);
+    }
+
+    /**
+     * Applies the plugin to a scene that was loaded before startup, one step per client
+     * tick, so no single frame carries all of it. Replacements are spawned once the sweep
+     * completes. Stops if the game leaves the logged in state, since the next login
+     * applies the plugin instead.
+     *
+     * @param run  the {@link #runId} of the start
+     * @param step the step to run
+     */
+    private void runStartUpStep(int run, int step)
+    {
+        if (run != runId || client.getGameState() != GameState.LOGGED_IN)
+        {
+            startUpPending = false;
+            return;
+        }
+        switch (step)
+        {
+            case 0:
+                warmModelCache();
+                break;
+            case 1:
+            {
+                WorldView wv = client.getTopLevelWorldView();
+                if (wv != null)
+                {
+                    chunkTable(topLevel, wv);
+                }
+                updateSceneRegions();
+                updateSceneActive();
+                break;
+            }
+            case 2:
+                placeCachedAnchors();
+                break;
+            default:
+                applyHidingToScene();
+                applyHidingToLoadedSubViews();
+                startUpPending = false;
+                return;
+        }
+        clientThread.invokeLater(() -> runStartUpStep(run, step + 1));
+    }
+
+    /**
+     * Starts a sweep of every sub world view the client already has; views loaded before
+     * startup get no load event.
+     */
+    private void applyHidingToLoadedSubViews()
+    {
+        WorldView wv = client.getTopLevelWorldView();
+        Iterable<? extends WorldView> loaded = wv != null ? wv.worldViews() : null;
+        if (loaded != null)
+        {
+            for (WorldView sub : loaded)
+            {
+                applyHidingToView(viewState(sub.getId()), sub);
+            }
+        }
+    }
+
+    /**
+     * @return true until startup has applied the plugin to the loaded scene
+     */
+    boolean isStartUpPending()
+    {
+        return startUpPending;
+    }
+
+    /**
+     * Called when the plugin is stopped.
+     * Cleans up any resources and restores the game state.
+     */
+    @Override
+    protected void shutDown()
+    {
+        log.info("No Stalactites stopping...");
+        runId++;
+        startUpPending = false;
+        
+        if (metrics.isEnabled())
+        {
+            overlayManager.remove(metricsOverlay);
+            metrics.setEnabled(false);
+        }
+        if (drawHiding)
+        {
+            hooks.unregisterRenderableDrawListener(drawListener);
+            drawHiding = false;
+        }
         
-        // Apply to existing scene shortly after startup on the game thread
+        // Clear all custom objects and caches on the client thread
         clientThread.invoke(() -> {
-            applyHidingToScene();
-            updateStalagmiteObjects();
+            // First despawn all stalagmite objects and drop their anchors
+            topLevel.getColumnAnchors().clear(this::deactivateAll);
+            for (WorldViewState view : subViews)
+            {
+                view.getColumnAnchors().clear(this::deactivateAll);
+            }
+            
+            setFrameBudget(0);
+            updateReplacementLimit();
+            
+            // Clear model cache and object pool
+            modelCache.clear();
+            objectPool.clear();
+            footprints.clear();
+            
+            // Clear tracking collections
+            started = false;
+            matcher = CompiledObjectMatcher.EMPTY;
+            matcherRules = null;
+            sceneRegions = null;
+            emptyRegions.clear();
+            sceneActive = true;
+            pendingScan = null;
+            pendingPreload = null;
+            unconfirmedAnchors.clear(null);
+            anchorCacheCheck = false;
+            anchorCache = null;
+            
+            // Reset rotation index
+            rotationIndex = 0;
+            
+            // Restore hidden objects in place; game objects can only come back through a scene reload
+            int pending = restoreAll(CompiledObjectMatcher.EMPTY);
+            topLevel.resetScene();
+            subViews.clear();
+            drawHider.clear();
+            if (pending > 0 && client.getGameState() == GameState.LOGGED_IN) {
+                client.setGameState(GameState.LOADING);
+            }
         });
         
-        log.info("No Stalactites started");
+        log.info("No Stalactites stopped");
+    }
+
+    /**
+     * Provides the plugin configuration.
+     *
+     * @param configManager the RuneLite config manager
+     * @return the plugin configuration
+     */
+    @Provides
+    NoStalactitesConfig provideConfig(ConfigManager configManager)
+    {
+        return configManager.getConfig(NoStalactitesConfig.class);
+    }
+
+    /**
+     * Handles configuration changes.
+     * Updates the plugin state when configuration values are modified.
+     *
+     * @param event the configuration change event
+     */
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event)
+    {
+        if (!event.getGroup().equals("nostalactites"))
+        {
+            return;
+        }
+        if (event.getKey().equals("showMetrics"))
+        {
+            // Enabling resets the counters the client thread records into; a toggle still
+            // queued when the plugin stops must not add the overlay back
+            final int run = runId;
+            clientThread.invokeLater(() -> {
+                if (run == runId)
+                {
+                    updateMetricsOverlay();
+                }
+            });
+            return;
+        }
+        if (event.getKey().equals("replacementRadius"))
+        {
+            clientThread.invokeLater(() -> replacementLod.setRadius(config.replacementRadius(), topLevel.getColumnAnchors()));
+            return;
+        }
+        if (event.getKey().equals("frameBudget"))
+        {
+            clientThread.invokeLater(() -> {
+                setFrameBudget(config.frameBudget());
+                updateReplacementLimit();
+            });
+            return;
+        }
+        if (event.getKey().equals("hidingEngine"))
+        {
+            clientThread.invokeLater(this::updateHidingEngine);
+            return;
+        }
+        if (event.getKey().equals("mergeReplacements"))
+        {
+            clientThread.invokeLater(() -> {
+                // Respawn every replacement in the new form
+                topLevel.getColumnAnchors().clearValues(this::deactivateAll);
+                for (WorldViewState view : subViews)
+                {
+                    view.getColumnAnchors().clearValues(this::deactivateAll);
+                }
+                warmModelCache();
+                updateStalagmiteObjects();
+            });
+            return;
+        }
+
+        // Rebuild the set of hidden IDs based on current config, on the client thread like the
+        // rebuilds for region changes, then apply only the difference to the loaded scene
+        clientThread.invokeLater(() -> {
+            final ObjectMatcher previous = matcher;
+            rebuildHiddenIds();
+            try {
+                applyConfigDelta(previous, matcher);
+            } catch (Exception e) {
+                log.error("Error updating objects: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Switches between removing hidden objects from the scene and skipping them when drawn.
+     * Objects hidden by the old engine are handed over to the new one.
+     */
+    private void updateHidingEngine()
+    {
+        boolean draw = config.hidingEngine() == HidingEngine.DRAW_LISTENER;
+        if (draw == drawHiding)
+        {
+            return;
+        }
+        if (draw)
+        {
+            hooks.registerRenderableDrawListener(drawListener);
+            drawHiding = true;
+            int pending = restoreAll(CompiledObjectMatcher.EMPTY);
+            topLevel.getHideRegistry().clear();
+            for (WorldViewState view : subViews)
+            {
+                view.getHideRegistry().clear();
+            }
+            if (pending > 0 && client.getGameState() == GameState.LOGGED_IN)
+            {
+                // Removed game objects only come back through a reload, which tracks them anew
+                client.setGameState(GameState.LOADING);
+                return;
+            }
+        }
+        else
+        {
+            hooks.unregisterRenderableDrawListener(drawListener);
+            drawHiding = false;
+            drawHider.clear();
+        }
+        applyHidingToScene();
+        applyHidingToSubViews();
+    }
+
+    /**
+     * Draw listener for the {@link HidingEngine#DRAW_LISTENER} engine.
+     *
+     * @param renderable the renderable about to be drawn
+     * @param drawingUi  whether the renderable is drawn as part of the UI
+     * @return false to skip drawing the renderable
+     */
+    boolean shouldDraw(Renderable renderable, boolean drawingUi)
+    {
+        return drawHider.isVisible(renderable, matcher);
+    }
+
+    /**
+     * Shows or hides the metrics overlay, collecting metrics only while it is shown.
+     */
+    private void updateMetricsOverlay()
+    {
+        boolean show = config.showMetrics();
+        if (show == metrics.isEnabled())
+        {
+            return;
+        }
+        if (show)
+        {
+            metrics.setEnabled(true);
+            overlayManager.add(metricsOverlay);
+        }
+        else
+        {
+            overlayManager.remove(metricsOverlay);
+            metrics.setEnabled(false);
+        }
+    }
+
+    /**
+     * Brings the loaded scene in line with a new matcher without reloading it where possible.
+     * Objects that are no longer hidden are restored, newly hidden objects are removed, and
+     * replacements are rebuilt only if the set of replaced columns changed.
+     *
+     * @param previous the matcher that was in effect
+     * @param current  the matcher now in effect
+     */
+    private void applyConfigDelta(ObjectMatcher previous, ObjectMatcher current)
+    {
+        long start = metrics.start();
+        try
+        {
+            applyConfigDeltaUntimed(previous, current);
+        }
+        finally
+        {
+            metrics.stop(Metric.CONFIG_DELTA_TIME, start);
+        }
+    }
+
+    private void applyConfigDeltaUntimed(ObjectMatcher previous, ObjectMatcher current)
+    {
+        // Regions learned as empty may hold objects the new rules match
+        if (ObjectMatcher.addedFlags(previous, current) != ObjectMatcher.NONE)
+        {
+            emptyRegions.clear();
+        }
+        updateSceneActive();
+
+        // Bring back objects that are no longer hidden
+        if (restoreAll(current) > 0 && client.getGameState() == GameState.LOGGED_IN) {
+            // Game objects cannot be re-inserted in place; the reload re-applies everything
+            client.setGameState(GameState.LOADING);
+            return;
+        }
+        
+        // Remove objects that are now hidden; objects hidden before are already gone.
+        // Replacements for newly hidden columns are spawned when the sweep completes.
+        int added = ObjectMatcher.addedFlags(previous, current);
+        int removed = ObjectMatcher.addedFlags(current, previous);
+        if ((added & ObjectMatcher.HIDE) != 0) {
+            applyHidingToScene();
+            applyHidingToSubViews();
+        }
+        
+        // Rebuild replacements from the removed columns if the set of replaced columns changed
+        if (((added | removed) & ObjectMatcher.REPLACE) != 0) {
+            topLevel.getColumnAnchors().clear(this::deactivateAll);
+            for (WorldViewState view : subViews) {
+                view.getColumnAnchors().clear(this::deactivateAll);
+            }
+            if (drawHiding) {
+                drawHider.forEachGameObject(go -> {
+                    if ((current.match(go.getId()) & ObjectMatcher.REPLACE) != 0) {
+                        recordColumnFootprint(go);
+                    }
+                });
+            } else {
+                recordReplacedColumns(topLevel, current);
+                for (WorldViewState view : subViews) {
+                    recordReplacedColumns(view, current);
+                }
+            }
+            updateStalagmiteObjects();
+        }
+    }
+
+    /**
+     * Records the footprint of every column removed from a view that the matcher replaces.
+     */
+    private void recordReplacedColumns(WorldViewState view, ObjectMatcher current)
+    {
+        view.getHideRegistry().forEachGameObject(go -> {
+            if ((current.match(go.getId()) & ObjectMatcher.REPLACE) != 0) {
+                recordColumnFootprint(view, go);
+            }
+        });
+    }
+
+    /**
+     * Restores the objects of every world view that the matcher no longer hides.
+     *
+     * @return the number of game objects that can only come back through a scene reload
+     */
+    private int restoreAll(ObjectMatcher current)
+    {
+        int pending = topLevel.getHideRegistry().restore(current);
+        for (WorldViewState view : subViews)
+        {
+            pending += view.getHideRegistry().restore(current);
+        }
+        return pending;
+    }
+
+    /**
+     * Handles game state changes.
+     * Replacement objects are positioned in scene-local coordinates, so they are
+     * despawned when the scene starts loading and respawned as columns reappear.
+     *
+     * @param event the game state change event
+     */
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event)
+    {
+        GameState previous = lastGameState;
+        lastGameState = event.getGameState();
+        if (event.getGameState() == GameState.LOADING)
+        {
+            metrics.sceneLoading();
+            governor.reset();
+            updateSceneRegions();
+            updateSceneActive();
+            sceneMatches = 0;
+            topLevel.resetScene();
+            replacementLod.clearCentre();
+            drawHider.clear();
+            pendingScan = null;
+            dropUnconfirmedAnchors();
+            anchorCacheCheck = false;
+            
+            // Objects that stayed pooled for the whole previous scene are surplus
+            int trimmed = objectPool.trim();
+            if (trimmed > 0)
+            {
+                log.debug("Trimmed {} idle replacement objects", trimmed);
+            }
+            clearStalagmiteObjects(topLevel);
+        }
+        // Only a scene load is followed by the spawns that confirm cached anchors; logging
+        // back in after a lost connection keeps the scene as it was
+        else if (event.getGameState() == GameState.LOGGED_IN && previous == GameState.LOADING && started)
+        {
+            WorldView wv = client.getTopLevelWorldView();
+            if (wv != null)
+            {
+                chunkTable(topLevel, wv);
+            }
+            warmModelCache();
+            evictUnloadedRegions();
+            placeCachedAnchors();
+            applyPreload();
+            if (updateSceneRegions())
+            {
+                // Spawn events for this scene were matched against the previous area's rules
+                updateSceneActive();
+                applyHidingToScene();
+            }
+            else if (sceneActive && sceneMatches == 0)
+            {
+                learnEmptyRegions();
+            }
+        }
+    }
+
+    /**
+     * Places replacements for the cached anchors of the loaded scene's regions in one batch.
+     * These, and the anchors already known for those regions, are confirmed by the scene's
+     * columns as they are hidden; any left unconfirmed once the scene has settled are
+     * dropped by {@link #checkAnchorCache()}.
+     */
+    private void placeCachedAnchors()
+    {
+        int[] regions = client.getMapRegions();
+        if (regions == null || (matcher.allFlags() & ObjectMatcher.REPLACE) == 0)
+        {
+            return;
+        }
+        int revision = client.getRevision();
+        if (anchorCache == null || anchorCache.getRevision() != revision)
+        {
+            anchorCache = new AnchorDiskCache(anchorCacheDirectory.toPath(), revision, catalog.fingerprint());
+        }
+
+        AnchorIndex<List<RuneLiteObject>> anchors = topLevel.getColumnAnchors();
+        int placed = 0;
+        for (int region : regions)
+        {
+            anchors.forEachInRegion(region, (anchor, objects) -> unconfirmedAnchors.add(anchor));
+            long[] cached = anchorCache.get(region);
+            if (cached == null)
+            {
+                continue;
+            }
+            for (long anchor : cached)
+            {
+                if (anchors.add(anchor))
+                {
+                    unconfirmedAnchors.add(anchor);
+                    placed++;
+                }
+            }
+        }
+        anchorCacheCheck = true;
+        if (placed > 0)
+        {
+            log.debug("Placed {} cached column anchors", placed);
+            updateStalagmiteObjects(topLevel);
+        }
+    }
+
+    /**
+     * Drops the cached anchors no column confirmed, then stores the anchors of every region
+     * the scene covered in full, writing the cache file off the client thread if any changed.
+     */
+    private void checkAnchorCache()
+    {
+        anchorCacheCheck = false;
+        int stale = dropUnconfirmedAnchors();
+        if (stale > 0)
+        {
+            log.debug("Dropped {} cached column anchors without a column", stale);
+        }
+
+        // Instances only copy parts of their template regions, so they are never stored
+        WorldView wv = client.getTopLevelWorldView();
+        int[] regions = sceneRegions;
+        if (wv == null || wv.isInstance() || regions == null)
+        {
+            return;
+        }
+        for (int region : regions)
+        {
+            if (EmptyRegionCache.isCovered(region, wv.getBaseX(), wv.getBaseY(), wv.getSizeX(), wv.getSizeY()))
+            {
+                anchorCache.put(region, topLevel.getColumnAnchors().anchorsInRegion(region));
+            }
+        }
+        if (anchorCache.isDirty())
+        {
+            final AnchorDiskCache cache = anchorCache;
+            final ByteBuffer contents = cache.encode();
+            executor.execute(() -> cache.write(contents));
+        }
+    }
+
+    /**
+     * Removes the cached anchors that were not confirmed, along with their replacements.
+     *
+     * @return the number of anchors removed
+     */
+    private int dropUnconfirmedAnchors()
+    {
+        int count = unconfirmedAnchors.size();
+        if (count > 0)
+        {
+            AnchorIndex<List<RuneLiteObject>> anchors = topLevel.getColumnAnchors();
+            unconfirmedAnchors.forEach((anchor, unused) -> anchors.remove(anchor, this::deactivateAll));
+            unconfirmedAnchors.clear(null);
+        }
+        return count;
+    }
+
+    /**
+     * Decides whether the loaded scene can contain any hidden object.
+     */
+    private void updateSceneActive()
+    {
+        boolean active = (matcher.allFlags() & ObjectMatcher.HIDE) != 0 && !emptyRegions.coversAll(sceneRegions);
+        if (active != sceneActive)
+        {
+            log.debug("Scene {}", active ? "active" : "skipped: no hidden objects in its regions");
+        }
+        sceneActive = active;
+    }
+
+    /**
+     * Records the regions of a scene that loaded without a single match, and stops handling
+     * the scene's events if it is now known to be empty.
+     */
+    private void learnEmptyRegions()
+    {
+        WorldView wv = client.getTopLevelWorldView();
+        if (wv == null || wv.isInstance() || sceneRegions == null)
+        {
+            return;
+        }
+        int learned = emptyRegions.learn(sceneRegions, wv.getBaseX(), wv.getBaseY(), wv.getSizeX(), wv.getSizeY());
+        if (learned > 0)
+        {
+            log.debug("Learned {} empty regions ({} total)", learned, emptyRegions.size());
+            updateSceneActive();
+        }
+    }
+
+    /**
+     * Recompiles the matcher if the loaded scene covers different map regions than the
+     * matcher was compiled for and those regions bring different rules. Does nothing until
+     * startup has prepared the rules.
+     *
+     * @return true if the matcher was recompiled
+     */
+    private boolean updateSceneRegions()
+    {
+        int[] regions = started ? client.getMapRegions() : null;
+        if (regions == null || Arrays.equals(regions, sceneRegions))
+        {
+            return false;
+        }
+        sceneRegions = regions.clone();
+        if (catalog.rulesFor(sceneRegions).equals(matcherRules))
+        {
+            return false;
+        }
+        rebuildHiddenIds();
+        return true;
+    }
+
+    /**
+     * Loads every rotation of the replacement model so spawning never loads models itself.
+     */
+    private void warmModelCache()
+    {
+        boolean warmed = config.mergeReplacements()
+            ? modelCache.warmMerged(NoStalactitesConfig.ROCK_FORMATION_ID)
+            : modelCache.warm(NoStalactitesConfig.ROCK_FORMATION_ID);
+        if (!warmed)
+        {
+            log.debug("Replacement model {} not available yet", NoStalactitesConfig.ROCK_FORMATION_ID);
+        }
+    }
+
+    /**
+     * Drops anchors, and their replacements, for map regions outside the loaded scene.
+     */
+    private void evictUnloadedRegions()
+    {
+        int[] loaded = client.getMapRegions();
+        if (loaded == null)
+        {
+            return;
+        }
+        int evicted = topLevel.getColumnAnchors().evictRegions(regionId -> {
+            for (int r : loaded)
+            {
+                if (r == regionId)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }, this::deactivateAll);
+        if (evicted > 0)
+        {
+            log.debug("Evicted {} column anchors outside the loaded scene", evicted);
+        }
+    }
+
+    /**
+     * Moves the replacement radius along with the player.
+     *
+     * @param event the game tick event
+     */
+    @Subscribe
+    public void onGameTick(GameTick event)
+    {
+        if (!replacementLod.isEnabled())
+        {
+            return;
+        }
+        Player player = client.getLocalPlayer();
+        if (player == null)
+        {
+            return;
+        }
+        // The window is kept in scene coordinates, since neighbouring chunks of an instance
+        // may be copied from far apart; a player aboard a sub world view leaves it in place
+        LocalPoint lp = player.getLocalLocation();
+        WorldView wv = client.getTopLevelWorldView();
+        if (lp == null || wv == null || lp.getWorldView() != wv.getId())
+        {
+            return;
+        }
+        InstanceChunkTable chunks = chunkTable(topLevel, wv);
+        if (chunks != null)
+        {
+            replacementLod.moveTo(lp.getSceneX(), lp.getSceneY(), chunks, topLevel.getColumnAnchors());
+        }
+    }
+
+    /**
+     * Handles the despawning of game objects.
+     * Keeps the anchor index in sync when the game itself removes a column.
+     *
+     * @param event the game object despawned event
+     */
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event)
+    {
+        GameObject obj = event.getGameObject();
+        // Despawns off the client thread come from a scene still being loaded
+        if (obj == null || removingObjects || !client.isClientThread())
+        {
+            return;
+        }
+        if (drawHiding)
+        {
+            drawHider.forget(obj);
+        }
+        if ((matcher.match(obj.getId()) & ObjectMatcher.REPLACE) == 0)
+        {
+            return;
+        }
+
+        WorldViewState view = findViewState(obj.getWorldView());
+        if (view == null)
+        {
+            return;
+        }
+        long anchor = computeColumnAnchor(view, obj);
+        if (anchor != AnchorIndex.NO_ANCHOR)
+        {
+            view.getColumnAnchors().remove(anchor, this::deactivateAll);
+        }
+    }
+
+    /**
+     * Handles the spawning of game objects.
+     * Hides objects that match the configured hidden IDs and manages column replacement.
+     *
+     * @param event the game object spawned event
+     */
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event)
+    {
+        if (!sceneActive && subViews.isEmpty())
+        {
+            return;
+        }
+        GameObject obj = event.getGameObject();
+        if (obj == null)
+        {
+            return;
+        }
+        
+        final int flags = matcher.match(obj.getId());
+        if ((flags & ObjectMatcher.HIDE) == 0)
+        {
+            return;
+        }
+        WorldViewState view = viewState(obj.getWorldView());
+        if (view == topLevel && !sceneActive)
+        {
+            return;
+        }
+
+        // Queue the object; the batch is processed before the next frame is drawn
+        view.getSpawnBatch().addGameObject(obj, flags);
+        sceneMatches++;
+        metrics.increment(Metric.EVENTS_MATCHED);
+    }
+
+    @Subscribe
+    public void onGroundObjectSpawned(GroundObjectSpawned event)
+    {
+        if (!sceneActive && subViews.isEmpty())
+        {
+            return;
+        }
+        GroundObject obj = event.getGroundObject();
+        if (obj == null || event.getTile() == null)
+        {
+            return;
+        }
+        if (!matcher.isHidden(obj.getId()))
+        {
+            return;
+        }
+        WorldViewState view = viewState(obj.getWorldView());
+        if (view == topLevel && !sceneActive)
+        {
+            return;
+        }
+
+        view.getSpawnBatch().addGroundObject(event.getTile(), obj);
+        sceneMatches++;
+        metrics.increment(Metric.EVENTS_MATCHED);
+    }
+
+    @Subscribe
+    public void onGroundObjectDespawned(GroundObjectDespawned event)
+    {
+        if (drawHiding && event.getGroundObject() != null)
+        {
+            drawHider.forget(event.getGroundObject());
+        }
+    }
+
+    @Subscribe
+    public void onWallObjectDespawned(WallObjectDespawned event)
+    {
+        if (drawHiding && event.getWallObject() != null)
+        {
+            drawHider.forget(event.getWallObject());
+        }
+    }
+
+    @Subscribe
+    public void onDecorativeObjectDespawned(DecorativeObjectDespawned event)
+    {
+        if (drawHiding && event.getDecorativeObject() != null)
+        {
+            drawHider.forget(event.getDecorativeObject());
+        }
+    }
+
+    /**
+     * Starts hiding objects in a sub world view as soon as it is loaded.
+     *
+     * @param event the world view loaded event
+     */
+    @Subscribe
+    public void onWorldViewLoaded(WorldViewLoaded event)
+    {
+        WorldView wv = event.getWorldView();
+        if (wv == null || wv.isTopLevel())
+        {
+            return;
+        }
+        WorldViewState view = viewState(wv.getId());
+        chunkTable(view, wv);
+        applyHidingToView(view, wv);
+    }
+
+    /**
+     * Releases the state of a sub world view, along with its replacements.
+     *
+     * @param event the world view unloaded event
+     */
+    @Subscribe
+    public void onWorldViewUnloaded(WorldViewUnloaded event)
+    {
+        WorldView wv = event.getWorldView();
+        WorldViewState view = findViewState(wv);
+        if (view == null || view == topLevel)
+        {
+            return;
+        }
+        view.getColumnAnchors().clear(this::deactivateAll);
+        view.resetScene();
+        subViews.remove(view);
+        log.debug("Released world view {}", view.getId());
+    }
+
+    /**
+     * Looks up the state of a world view, creating it for a sub world view seen for the
+     * first time.
+     *
+     * @param wv the world view, or null for the top-level view
+     */
+    private WorldViewState viewState(WorldView wv)
+    {
+        return wv == null ? topLevel : viewState(wv.getId());
+    }
+
+    private WorldViewState viewState(int id)
+    {
+        if (id == WorldView.TOPLEVEL)
+        {
+            return topLevel;
+        }
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            WorldViewState view = subViews.get(i);
+            if (view.getId() == id)
+            {
+                return view;
+            }
+        }
+        WorldViewState view = new WorldViewState(id, this::hideOnTile);
+        subViews.add(view);
+        return view;
+    }
+
+    /**
+     * Looks up the state of a world view without creating it.
+     *
+     * @param wv the world view, or null for the top-level view
+     * @return the state, or null if the view has none
+     */
+    private WorldViewState findViewState(WorldView wv)
+    {
+        if (wv == null || wv.getId() == WorldView.TOPLEVEL)
+        {
+            return topLevel;
+        }
+        int id = wv.getId();
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            if (subViews.get(i).getId() == id)
+            {
+                return subViews.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the world view a state belongs to, or null if it is not loaded
+     */
+    private WorldView worldView(WorldViewState view)
+    {
+        return view == topLevel ? client.getTopLevelWorldView() : client.getWorldView(view.getId());
+    }
+
+    /**
+     * Removes hidden objects from a scene that is about to be loaded, before the client
+     * uploads it. Runs on the map loading thread; the removed objects are recorded on the
+     * client thread once the scene is live.
+     *
+     * @param event the pre map load event
+     */
+    @Subscribe
+    public void onPreMapLoad(PreMapLoad event)
+    {
+        // The draw listener engine keeps objects in the scene
+        WorldView wv = event.getWorldView();
+        if (!sceneActive || drawHiding || wv == null || !wv.isTopLevel() || event.getScene() == null)
+        {
+            return;
+        }
+
+        try
+        {
+            SceneSweepEvent jfr = new SceneSweepEvent();
+            jfr.begin();
+            ScenePreload preload = ScenePreload.run(event.getScene(), matcher);
+            SpawnBatch removed = preload.getRemoved();
+            if (jfr.shouldCommit())
+            {
+                jfr.phase = SceneSweepEvent.PRELOAD;
+                jfr.tiles = preload.getTilesVisited();
+                jfr.objectsRemoved = removed.gameObjectCount() + removed.groundObjectCount();
+                jfr.complete = true;
+                jfr.commit();
+            }
+            log.debug("Preload sweep: {} tiles, {} objects removed in {} us", preload.getTilesVisited(),
+                removed.gameObjectCount() + removed.groundObjectCount(), preload.getElapsedNanos() / 1000L);
+            if (!removed.isEmpty())
+            {
+                pendingPreload = preload;
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Error hiding objects during map load: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records the objects removed by a preload once its scene is live, and spawns
+     * replacements for the columns among them.
+     */
+    private void applyPreload()
+    {
+        ScenePreload preload = pendingPreload;
+        if (preload == null || client.getGameState() != GameState.LOGGED_IN)
+        {
+            return;
+        }
+        WorldView wv = client.getTopLevelWorldView();
+        if (wv == null || wv.getScene() != preload.getScene())
+        {
+            // Not swapped in yet
+            return;
+        }
+        pendingPreload = null;
+
+        SpawnBatch removed = preload.getRemoved();
+        HideRegistry registry = topLevel.getHideRegistry();
+        for (int i = 0; i < removed.gameObjectCount(); i++)
+        {
+            GameObject obj = removed.gameObject(i);
+            if ((removed.gameObjectFlags(i) & ObjectMatcher.REPLACE) != 0)
+            {
+                long anchor = recordColumnFootprint(topLevel, obj);
+                if (anchor != AnchorIndex.NO_ANCHOR)
+                {
+                    addPendingAnchor(anchor);
+                }
+            }
+            registry.addGameObject(obj);
+        }
+        for (int i = 0; i < removed.groundObjectCount(); i++)
+        {
+            registry.addGroundObject(removed.groundTile(i), removed.groundObject(i));
+        }
+        int count = removed.gameObjectCount() + removed.groundObjectCount();
+        sceneMatches += count;
+        metrics.add(Metric.OBJECTS_REMOVED, count);
+        reconcilePendingAnchors(topLevel);
+    }
+
+    /**
+     * Runs the per-frame work: adjusts replacement density to the frame budget, records any
+     * preloaded scene, then drains the spawn batch and advances the scene sweep of each world
+     * view that has any.
+     *
+     * @param event the before render event
+     */
+    @Subscribe
+    public void onBeforeRender(BeforeRender event)
+    {
+        metrics.tick();
+        long frameStart = 0;
+        if (governor.isEnabled())
+        {
+            frameStart = System.nanoTime();
+            if (governor.frame(frameStart))
+            {
+                updateReplacementLimit();
+            }
+        }
+        if (pendingPreload != null)
+        {
+            applyPreload();
+        }
+        // Like the preload, spawns of a loading scene are only recorded once it is live, after
+        // the anchors of its regions have been marked unconfirmed
+        if (client.getGameState() == GameState.LOGGED_IN)
+        {
+            drainSpawnBatch(topLevel);
+        }
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            drainSpawnBatch(subViews.get(i));
+        }
+
+        // The sweep budget is shared by every view sweeping this frame
+        long deadline = 0;
+        if (topLevel.getSceneSweep() != null)
+        {
+            deadline = sweepDeadline();
+            advanceSceneSweep(topLevel, deadline);
+        }
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            WorldViewState view = subViews.get(i);
+            if (view.getSceneSweep() != null)
+            {
+                if (deadline == 0)
+                {
+                    deadline = sweepDeadline();
+                }
+                advanceSceneSweep(view, deadline);
+            }
+        }
+
+        // Startup places cached anchors a step before it starts the sweep that confirms them
+        if (anchorCacheCheck && !startUpPending && pendingPreload == null && pendingScan == null
+            && topLevel.getSceneSweep() == null)
+        {
+            checkAnchorCache();
+        }
+        if (frameStart != 0)
+        {
+            governor.addPluginTime(System.nanoTime() - frameStart);
+        }
+    }
+
+    /**
+     * Sets the frame budget, listening for drawn frames only while one is set.
+     *
+     * @param millis the budget in milliseconds, or 0 for none
+     */
+    private void setFrameBudget(int millis)
+    {
+        governor.setBudget(millis);
+        if (governor.isEnabled() != frameListenerRegistered)
+        {
+            frameListenerRegistered = governor.isEnabled();
+            if (frameListenerRegistered)
+            {
+                drawManager.registerEveryFrameListener(frameDrawnListener);
+            }
+            else
+            {
+                drawManager.unregisterEveryFrameListener(frameDrawnListener);
+            }
+        }
+    }
+
+    /**
+     * Brings the top-level replacements in line with the frame budget's density level.
+     */
+    private void updateReplacementLimit()
+    {
+        replacementLod.setLimit(governor.getPerFootprint(), governor.getRadius(), topLevel.getColumnAnchors());
+        log.debug("Replacement density level {}", governor.getLevel());
+    }
+
+    /**
+     * @return when this frame's sweeping must end, or {@link Long#MAX_VALUE} if the sweep
+     *         budget is unlimited
+     */
+    private long sweepDeadline()
+    {
+        long budget = config.sweepBudget() * 1000L;
+        return budget > 0 ? System.nanoTime() + budget : Long.MAX_VALUE;
+    }
+
+    /**
+     * Drains the spawn batch of a world view, if it has anything queued.
+     */
+    private void drainSpawnBatch(WorldViewState view)
+    {
+        if (view.getSpawnBatch().isEmpty())
+        {
+            return;
+        }
+        long start = metrics.start();
+        drainSpawnBatchUntimed(view);
+        metrics.stop(Metric.SPAWN_BATCH_TIME, start);
+    }
+
+    /**
+     * Drains the spawn batch of a world view.
+     * The scene is looked up once, all queued objects are removed in a single pass while
+     * recording column footprints, and replacements are then spawned for the new anchors.
+     */
+    private void drainSpawnBatchUntimed(WorldViewState view)
+    {
+        final SpawnBatch spawnBatch = view.getSpawnBatch();
+        final HideRegistry hideRegistry = view.getHideRegistry();
+        SpawnBatchEvent jfr = new SpawnBatchEvent();
+        jfr.begin();
+        final int gameStart = hideRegistry.gameObjectCount();
+        final int groundStart = hideRegistry.groundObjectCount();
+        int anchors = 0;
+        try
+        {
+            WorldView wv = worldView(view);
+            Scene scene = wv != null ? wv.getScene() : null;
+            if (scene == null)
+            {
+                return;
+            }
+
+            removingObjects = true;
+            for (int i = 0; i < spawnBatch.gameObjectCount(); i++)
+            {
+                GameObject obj = spawnBatch.gameObject(i);
+                if ((spawnBatch.gameObjectFlags(i) & ObjectMatcher.REPLACE) != 0)
+                {
+                    long anchor = recordColumnFootprint(view, obj);
+                    if (anchor != AnchorIndex.NO_ANCHOR)
+                    {
+                        addPendingAnchor(anchor);
+                    }
+                }
+                hideGameObject(view, scene, obj);
+            }
+            removingObjects = false;
+            metrics.add(Metric.OBJECTS_REMOVED, spawnBatch.gameObjectCount());
+
+            for (int i = 0; i < spawnBatch.groundObjectCount(); i++)
+            {
+                Tile tile = spawnBatch.groundTile(i);
+                // Only clear the tile if it still holds the object we matched
+                GroundObject obj = spawnBatch.groundObject(i);
+                if (tile.getGroundObject() == obj)
+                {
+                    hideGroundObject(view, tile, obj);
+                    metrics.increment(Metric.OBJECTS_REMOVED);
+                }
+            }
+
+            // Spawn replacements for the columns in this batch only; other anchors are untouched
+            anchors = pendingAnchorCount;
+            reconcilePendingAnchors(view);
+        }
+        finally
+        {
+            if (jfr.shouldCommit())
+            {
+                jfr.gameObjects = spawnBatch.gameObjectCount();
+                jfr.groundObjects = spawnBatch.groundObjectCount();
+                jfr.objectsRemoved = hideRegistry.gameObjectCount() - gameStart + hideRegistry.groundObjectCount() - groundStart;
+                jfr.anchors = anchors;
+                jfr.matchedIds = hideRegistry.idsSince(gameStart, groundStart);
+                jfr.commit();
+            }
+            removingObjects = false;
+            pendingAnchorCount = 0;
+            spawnBatch.clear();
+        }
+    }
+
+    /**
+     * Hides a game object with the engine in use.
+     */
+    private void hideGameObject(WorldViewState view, Scene scene, GameObject obj)
+    {
+        if (drawHiding)
+        {
+            drawHider.track(obj);
+        }
+        else
+        {
+            scene.removeGameObject(obj);
+            view.getHideRegistry().addGameObject(obj);
+        }
+    }
+
+    /**
+     * Hides a ground object with the engine in use.
+     */
+    private void hideGroundObject(WorldViewState view, Tile tile, GroundObject obj)
+    {
+        if (drawHiding)
+        {
+            drawHider.track(obj);
+        }
+        else
+        {
+            tile.setGroundObject(null);
+            view.getHideRegistry().addGroundObject(tile, obj);
+        }
+    }
+
+    /**
+     * Spawns replacements for the anchors recorded since the last call, and forgets them.
+     */
+    private void reconcilePendingAnchors(WorldViewState view)
+    {
+        if (pendingAnchorCount == 0)
+        {
+            return;
+        }
+        StalagmiteEvent jfr = new StalagmiteEvent();
+        jfr.begin();
+        final int objects = objectsSpawned;
+        try
+        {
+            for (int i = 0; i < pendingAnchorCount; i++)
+            {
+                reconcileAnchor(view, pendingAnchors[i]);
+            }
+        }
+        finally
+        {
+            if (jfr.shouldCommit())
+            {
+                jfr.action = StalagmiteEvent.SPAWN;
+                jfr.anchors = pendingAnchorCount;
+                jfr.objects = objectsSpawned - objects;
+                jfr.commit();
+            }
+            pendingAnchorCount = 0;
+        }
+    }
+
+    private void addPendingAnchor(long anchor)
+    {
+        if (pendingAnchorCount == pendingAnchors.length)
+        {
+            pendingAnchors = Arrays.copyOf(pendingAnchors, pendingAnchors.length * 2);
+        }
+        pendingAnchors[pendingAnchorCount++] = anchor;
+    }
+
+    @Subscribe
+    public void onWallObjectSpawned(WallObjectSpawned event)
+    {
+        if ((!sceneActive && subViews.isEmpty()) || event.getWallObject() == null)
+        {
+            return;
+        }
+        final int id = event.getWallObject().getId();
+        if (matcher.isHidden(id))
+        {
+            sceneMatches++;
+            if (drawHiding)
+            {
+                drawHider.track(event.getWallObject());
+                return;
+            }
+            // No public API to remove wall objects; only the draw listener engine can hide them.
+            log.debug("Matched hidden wall object id {} at {} - no public removal API", id, event.getTile().getWorldLocation());
+        }
+    }
+
+    @Subscribe
+    public void onDecorativeObjectSpawned(DecorativeObjectSpawned event)
+    {
+        if ((!sceneActive && subViews.isEmpty()) || event.getDecorativeObject() == null)
+        {
+            return;
+        }
+        final int id = event.getDecorativeObject().getId();
+        if (matcher.isHidden(id))
+        {
+            sceneMatches++;
+            if (drawHiding)
+            {
+                drawHider.track(event.getDecorativeObject());
+                return;
+            }
+            // No public API to remove decorative objects; only the draw listener engine can hide them.
+            log.debug("Matched hidden decorative object id {} at {} - no public removal API", id, event.getTile().getWorldLocation());
+        }
+    }
+
+    /**
+     * Rebuilds the hidden object matcher based on the current configuration and the rules for
+     * the loaded scene's regions. This is called on the client thread when the configuration
+     * changes or the player enters a different area.
+     */
+    private void rebuildHiddenIds()
+    {
+        matcherVersion++;
+        matcherRules = catalog.rulesFor(sceneRegions);
+        matcher = CompiledObjectMatcher.compile(matcherRules, config);
+    }
+
+
+    /**
+     * Starts a sweep of the loaded scene that removes every object the current matcher hides.
+     * The sweep runs in slices under the configured per-frame budget, or as a parallel scan of
+     * a scene snapshot; replacements are spawned once it completes.
+     */
+    void applyHidingToScene()
+    {
+        if (!sceneActive)
+        {
+            return;
+        }
+        WorldView wv = client.getTopLevelWorldView();
+        Scene scene = wv != null ? wv.getScene() : null;
+        if (scene == null)
+        {
+            return;
+        }
+        // Snapshots only cover game and ground objects
+        if (config.parallelSweep() && !drawHiding)
+        {
+            long start = metrics.start();
+            startParallelScan(scene);
+            metrics.stop(Metric.SCENE_SWEEP_TIME, start);
+        }
+        else
+        {
+            topLevel.setSceneSweep(new SceneSweep(scene, matcher));
+        }
     }
 
     /**
-     * Called when the plugin is stopped.
-     * Cleans up any resources and restores the game state.
+     * Starts a sweep of every loaded sub world view.
      */
-    @Override
-    protected void shutDown()
+    private void applyHidingToSubViews()
     {
-        log.info("No Stalactites stopping...");
-        
-        // Clear all custom objects and caches on the client thread
-        clientThread.invoke(() -> {
-            // First despawn all stalagmite objects
-            for (List<RuneLiteObject> objects : stalagmiteObjects.values()) {
-                for (RuneLiteObject obj : objects) {
-                    try {
-                        obj.setActive(false);
-                    } catch (Exception e) {
-                        log.debug("Error deactivating object: {}", e.getMessage());
-                    }
-                }
-            }
-            stalagmiteObjects.clear();
-            
-            // Clear model cache
-            modelCache.clear();
-            
-            // Clear tracking collections
-            hiddenIds.clear();
-            columnAnchors.clear();
-            
-            // Reset rotation index
-            rotationIndex = 0;
-            
-            // Force scene reload to restore hidden objects
-            if (client.getGameState() == GameState.LOGGED_IN) {
-                client.setGameState(GameState.LOADING);
-            }
-        });
-        
-        log.info("No Stalactites stopped");
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            WorldViewState view = subViews.get(i);
+            applyHidingToView(view, worldView(view));
+        }
     }
 
     /**
-     * Provides the plugin configuration.
+     * Starts a sliced sweep of a sub world view's scene. Spawns queued for the view are
+     * dropped, since the sweep visits every object they refer to.
      *
-     * @param configManager the RuneLite config manager
-     * @return the plugin configuration
+     * @param view the view's state
+     * @param wv   the sub world view
      */
-    @Provides
-    NoStalactitesConfig provideConfig(ConfigManager configManager)
+    private void applyHidingToView(WorldViewState view, WorldView wv)
     {
-        return configManager.getConfig(NoStalactitesConfig.class);
+        Scene scene = wv != null ? wv.getScene() : null;
+        if (scene == null || (matcher.allFlags() & ObjectMatcher.HIDE) == 0)
+        {
+            return;
+        }
+        view.getSpawnBatch().clear();
+        view.setSceneSweep(new SceneSweep(scene, matcher));
     }
 
     /**
-     * Handles configuration changes.
-     * Updates the plugin state when configuration values are modified.
+     * Snapshots the scene's object IDs and matches them on the fork-join pool.
+     * The resulting removals are applied back on the client thread.
      *
-     * @param event the configuration change event
+     * @param scene the scene to scan
      */
-    @Subscribe
-    public void onConfigChanged(ConfigChanged event)
+    private void startParallelScan(Scene scene)
     {
-        if (!event.getGroup().equals("nostalactites"))
+        SceneSweepEvent jfr = new SceneSweepEvent();
+        jfr.begin();
+        final long start = System.nanoTime();
+        final ObjectMatcher matcher = this.matcher;
+        final SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+        pendingScan = snapshot;
+        final long captureNanos = System.nanoTime() - start;
+        if (jfr.shouldCommit())
         {
-            return;
+            jfr.phase = SceneSweepEvent.CAPTURE;
+            jfr.objectsScanned = snapshot.size();
+            jfr.commit();
         }
 
-        // Rebuild the set of hidden IDs based on current config
-        rebuildHiddenIds();
-        
-        // Clear existing stalagmite objects when config changes
-        clearStalagmiteObjects();
-        
-        // Force a scene reload to apply changes
-        clientThread.invokeLater(() -> {
-            try {
-                if (client.getGameState() == GameState.LOGGED_IN) {
-                    client.setGameState(GameState.LOADING);
-                } else {
-                    applyHidingToScene();
-                    if (config.hideColumns() && config.replaceWithRocks()) {
-                        updateStalagmiteObjects();
-                    }
+        CompletableFuture.supplyAsync(() -> snapshot.scan(matcher))
+            .whenComplete((result, ex) -> {
+                if (ex != null)
+                {
+                    log.error("Error scanning scene snapshot: {}", ex.getMessage(), ex);
+                    return;
                 }
-            } catch (Exception e) {
-                log.error("Error updating objects: {}", e.getMessage(), e);
-            }
-        });
+                clientThread.invokeLater(() -> applyScanResult(snapshot, result, captureNanos));
+            });
     }
 
     /**
-     * Handles the spawning of game objects.
-     * Hides objects that match the configured hidden IDs and manages column replacement.
+     * Removes the objects matched by a parallel scan, if the scan is still current.
      *
-     * @param event the game object spawned event
+     * @param snapshot     the scanned snapshot
+     * @param result       the per-entry flags from the scan
+     * @param captureNanos the time spent capturing the snapshot
      */
-    @Subscribe
-    public void onGameObjectSpawned(GameObjectSpawned event)
+    private void applyScanResult(SceneSnapshot snapshot, byte[] result, long captureNanos)
     {
-        GameObject obj = event.getGameObject();
-        if (obj == null)
+        if (pendingScan != snapshot)
         {
             return;
         }
-        
-        final int id = obj.getId();
-        if (!hiddenIds.contains(id))
+        pendingScan = null;
+        WorldView wv = client.getTopLevelWorldView();
+        if (wv == null || wv.getScene() != snapshot.getScene())
         {
             return;
         }
 
-        // Remove the object from the scene on the game thread
-        clientThread.invoke(() -> {
-            WorldView wv = client.getTopLevelWorldView();
-            Scene scene = wv != null ? wv.getScene() : null;
-            if (scene == null)
-            {
-                return;
-            }
-            
-            // Record column footprint if replacing with rocks is enabled
-            if (isColumnId(id) && config.hideColumns() && config.replaceWithRocks())
-            {
-                recordColumnFootprint(obj);
-            }
-            
-            // Remove the object from the scene
-            scene.removeGameObject(obj);
-            
-            // Update stalagmite objects if this was a column
-            if (isColumnId(id) && config.hideColumns() && config.replaceWithRocks())
-            {
-                updateStalagmiteObjects();
-            }
-        });
-    }
-
-    @Subscribe
-    public void onGroundObjectSpawned(GroundObjectSpawned event)
-    {
-        if (event.getGroundObject() == null)
+        final Scene scene = snapshot.getScene();
+        final HideRegistry hideRegistry = topLevel.getHideRegistry();
+        final long start = System.nanoTime();
+        final long timer = metrics.start();
+        SceneSweepEvent jfr = new SceneSweepEvent();
+        jfr.begin();
+        final int gameStart = hideRegistry.gameObjectCount();
+        final int groundStart = hideRegistry.groundObjectCount();
+        final int anchorStart = topLevel.getColumnAnchors().size();
+        int removed;
+        removingObjects = true;
+        try
         {
-            return;
+            removed = snapshot.forEachMatch(result, (tile, go, ground, flags) -> hideMatched(scene, tile, go, ground, flags));
         }
-        final int id = event.getGroundObject().getId();
-        if (!hiddenIds.contains(id))
+        finally
         {
-            return;
+            removingObjects = false;
         }
-
-        clientThread.invoke(() -> {
-            Tile tile = event.getTile();
-            if (tile != null)
-            {
-                tile.setGroundObject(null);
-            }
-        });
+        log.debug("Parallel sweep completed: {} objects scanned, {} removed, {} us capture, {} us apply",
+            snapshot.size(), removed, captureNanos / 1000L, (System.nanoTime() - start) / 1000L);
+        if (jfr.shouldCommit())
+        {
+            jfr.phase = SceneSweepEvent.APPLY;
+            jfr.objectsScanned = snapshot.size();
+            jfr.objectsRemoved = removed;
+            jfr.anchors = topLevel.getColumnAnchors().size() - anchorStart;
+            jfr.matchedIds = hideRegistry.idsSince(gameStart, groundStart);
+            jfr.complete = true;
+            jfr.commit();
+        }
+        updateStalagmiteObjects(topLevel);
+        metrics.stop(Metric.SCENE_SWEEP_TIME, timer);
     }
 
-    @Subscribe
-    public void onWallObjectSpawned(WallObjectSpawned event)
+    /**
+     * Removes a single object matched by a parallel scan of the top-level scene.
+     */
+    private void hideMatched(Scene scene, Tile tile, GameObject go, GroundObject ground, int flags)
     {
-        if (event.getWallObject() == null)
+        if (go != null)
         {
-            return;
+            if ((flags & ObjectMatcher.REPLACE) != 0)
+            {
+                recordColumnFootprint(topLevel, go);
+            }
+            hideGameObject(topLevel, scene, go);
         }
-        final int id = event.getWallObject().getId();
-        if (hiddenIds.contains(id))
+        else
         {
-            // No public API to remove wall objects; log a debug match for now.
-            log.debug("Matched hidden wall object id {} at {} - no public removal API", id, event.getTile().getWorldLocation());
+            hideGroundObject(topLevel, tile, ground);
         }
+        metrics.increment(Metric.OBJECTS_REMOVED);
     }
 
-    @Subscribe
-    public void onDecorativeObjectSpawned(DecorativeObjectSpawned event)
+    /**
+     * @return true while a scene sweep or parallel scan has not been applied yet
+     */
+    boolean isSweepPending()
     {
-        if (event.getDecorativeObject() == null)
+        if (topLevel.getSceneSweep() != null || pendingScan != null)
         {
-            return;
+            return true;
         }
-        final int id = event.getDecorativeObject().getId();
-        if (hiddenIds.contains(id))
+        for (WorldViewState view : subViews)
         {
-            // No public API to remove decorative objects; log a debug match for now.
-            log.debug("Matched hidden decorative object id {} at {} - no public removal API", id, event.getTile().getWorldLocation());
+            if (view.getSceneSweep() != null)
+            {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Rebuilds the set of hidden object IDs based on the current configuration.
-     * This is called when the configuration changes to update which objects should be hidden.
+     * Advances the scene sweep of a world view by one slice, if the frame's budget allows.
+     *
+     * @param view     the view's state
+     * @param deadline the {@link System#nanoTime()} by which this frame's sweeping must end,
+     *                 or {@link Long#MAX_VALUE} to sweep without a budget
      */
-    private void rebuildHiddenIds()
+    private void advanceSceneSweep(WorldViewState view, long deadline)
     {
-        hiddenIds.clear();
-        
-        // Add stalactite object IDs if enabled
-        if (config.hideStalactites())
-        {
-            // Stalactite objects
-            hiddenIds.add(12577); // Large stalactite
-            hiddenIds.add(11187); // Medium stalactite
-            hiddenIds.add(11189); // Small stalactite
-        }
-        
-        // Add column object IDs if enabled
-        if (config.hideColumns())
+        long budget = deadline == Long.MAX_VALUE ? 0 : deadline - System.nanoTime();
+        if (deadline != Long.MAX_VALUE && budget <= 0)
         {
-            // Column objects (different rotations/states)
-            hiddenIds.add(11184); // Column 1
-            hiddenIds.add(11185); // Column 2
-            hiddenIds.add(11186); // Column 3
+            return;
         }
+        long start = metrics.start();
+        advanceSceneSweepUntimed(view, budget);
+        metrics.stop(Metric.SCENE_SWEEP_TIME, start);
     }
 
-
-    private void applyHidingToScene()
+    private void advanceSceneSweepUntimed(WorldViewState view, long budget)
     {
-        WorldView wv = client.getTopLevelWorldView();
-        Scene scene = wv != null ? wv.getScene() : null;
-        if (scene == null)
+        SceneSweep sweep = view.getSceneSweep();
+        WorldView wv = worldView(view);
+        if (wv == null || wv.getScene() != sweep.getScene())
         {
+            // The scene was replaced; the new one gets its own sweep or spawn events
+            view.setSceneSweep(null);
             return;
         }
-        Tile[][][] tiles = scene.getTiles();
-        if (tiles == null)
+
+        final HideRegistry hideRegistry = view.getHideRegistry();
+        final AnchorIndex<List<RuneLiteObject>> columnAnchors = view.getColumnAnchors();
+        SceneSweepEvent jfr = new SceneSweepEvent();
+        jfr.begin();
+        final int tileStart = sweep.getTilesVisited();
+        final int gameStart = hideRegistry.gameObjectCount();
+        final int groundStart = hideRegistry.groundObjectCount();
+        final int anchorStart = columnAnchors.size();
+        boolean done;
+        removingObjects = true;
+        try
         {
-            return;
+            done = sweep.step(budget, view.getHideVisitor());
+        }
+        finally
+        {
+            removingObjects = false;
+        }
+        if (jfr.shouldCommit())
+        {
+            jfr.phase = SceneSweepEvent.SLICE;
+            jfr.tiles = sweep.getTilesVisited() - tileStart;
+            jfr.objectsRemoved = hideRegistry.gameObjectCount() - gameStart + hideRegistry.groundObjectCount() - groundStart;
+            jfr.anchors = columnAnchors.size() - anchorStart;
+            jfr.matchedIds = hideRegistry.idsSince(gameStart, groundStart);
+            jfr.complete = done;
+            jfr.commit();
         }
 
-        for (int z = 0; z < tiles.length; z++)
+        if (done)
         {
-            Tile[][] plane = tiles[z];
-            if (plane == null)
-            {
-                continue;
-            }
-            for (int x = 0; x < plane.length; x++)
+            view.setSceneSweep(null);
+            log.debug("Scene sweep of world view {} completed: {} tiles in {} slices over {} ms",
+                view.getId(), sweep.getTilesVisited(), sweep.getSlices(), sweep.getElapsedMillis());
+            updateStalagmiteObjects(view);
+        }
+    }
+
+    /**
+     * Removes the hidden objects on a single tile, recording column footprints as it goes.
+     *
+     * @param view  the world view being swept
+     * @param sweep the sweep visiting the tile
+     * @param t     the tile
+     */
+    private void hideOnTile(WorldViewState view, SceneSweep sweep, Tile t)
+    {
+        final Scene scene = sweep.getScene();
+        final ObjectMatcher matcher = sweep.getMatcher();
+
+        // Remove matching game objects
+        GameObject[] objs = t.getGameObjects();
+        if (objs != null)
+        {
+            for (GameObject go : objs)
             {
-                Tile[] col = plane[x];
-                if (col == null)
+                if (go == null)
                 {
                     continue;
                 }
-                for (int y = 0; y < col.length; y++)
+                int flags = matcher.match(go.getId());
+                if ((flags & ObjectMatcher.HIDE) != 0)
                 {
-                    Tile t = col[y];
-                    if (t == null)
+                    if ((flags & ObjectMatcher.REPLACE) != 0)
                     {
-                        continue;
+                        recordColumnFootprint(view, go);
                     }
+                    hideGameObject(view, scene, go);
+                    metrics.increment(Metric.OBJECTS_REMOVED);
+                }
+            }
+        }
 
-                    // Remove matching game objects
-                    GameObject[] objs = t.getGameObjects();
-                    if (objs != null)
-                    {
-                        for (GameObject go : objs)
-                        {
-                            if (go != null && hiddenIds.contains(go.getId()))
-                            {
-                                if (isColumnId(go.getId()) && config.hideColumns() && config.replaceWithRocks())
-                                {
-                                    recordColumnFootprint(go);
-                                }
-                                scene.removeGameObject(go);
-                            }
-                        }
-                    }
+        // Remove matching ground object
+        GroundObject ground = t.getGroundObject();
+        if (ground != null && matcher.isHidden(ground.getId()))
+        {
+            hideGroundObject(view, t, ground);
+            metrics.increment(Metric.OBJECTS_REMOVED);
+        }
 
-                    // Remove matching ground object
-                    if (t.getGroundObject() != null && hiddenIds.contains(t.getGroundObject().getId()))
-                    {
-                        t.setGroundObject(null);
-                    }
-                }
+        // Walls and decorations can only be hidden at draw time
+        if (drawHiding)
+        {
+            WallObject wall = t.getWallObject();
+            if (wall != null && matcher.isHidden(wall.getId()))
+            {
+                drawHider.track(wall);
+            }
+            DecorativeObject decoration = t.getDecorativeObject();
+            if (decoration != null && matcher.isHidden(decoration.getId()))
+            {
+                drawHider.track(decoration);
             }
         }
     }
 
     /**
-     * Checks if the given object ID corresponds to a column.
+     * Records the southwest anchor of a column's footprint in the world view it belongs to.
      *
-     * @param id the object ID to check
-     * @return true if the ID is a column, false otherwise
+     * @param go the column game object
+     * @return the packed anchor, or {@link AnchorIndex#NO_ANCHOR} if it could not be determined
      */
-    private static boolean isColumnId(int id)
+    long recordColumnFootprint(GameObject go)
     {
-        // Standard columns
-        if (id == 11184 || id == 11185 || id == 11186) {
-            return true;
-        }
-        
-        // Additional column variants if they exist
-        return id == 25080 || id == 25081 || id == 25082;
+        return recordColumnFootprint(viewState(go.getWorldView()), go);
     }
 
-    private void recordColumnFootprint(GameObject go)
+    private long recordColumnFootprint(WorldViewState view, GameObject go)
     {
-        try
+        long start = metrics.start();
+        long anchor = computeColumnAnchor(view, go);
+        if (anchor != AnchorIndex.NO_ANCHOR)
         {
-            WorldPoint wp = WorldPoint.fromLocalInstance(client, go.getLocalLocation());
-            if (wp == null)
+            // Use SW tile of the footprint as anchor. If not 2x2, still anchor at SW and overlay 2x2.
+            view.getColumnAnchors().add(anchor);
+            if (view == topLevel && unconfirmedAnchors.size() > 0)
             {
-                return;
+                unconfirmedAnchors.remove(anchor, null);
             }
+            metrics.increment(Metric.FOOTPRINTS_RECORDED);
+        }
+        metrics.stop(Metric.FOOTPRINT_TIME, start);
+        return anchor;
+    }
 
-            // Determine object size; default to 2x2 per user spec
-            int sizeX = 2, sizeY = 2;
-            ObjectComposition oc = client.getObjectDefinition(go.getId());
-            if (oc != null)
+    /**
+     * Computes the southwest anchor of a column's footprint without recording it.
+     *
+     * @param view the world view the column belongs to
+     * @param go   the column game object
+     * @return the packed anchor, or {@link AnchorIndex#NO_ANCHOR} if it could not be determined
+     */
+    private long computeColumnAnchor(WorldViewState view, GameObject go)
+    {
+        try
+        {
+            WorldView wv = worldView(view);
+            InstanceChunkTable chunks = wv != null ? chunkTable(view, wv) : null;
+            if (chunks == null)
             {
-                sizeX = oc.getSizeX();
-                sizeY = oc.getSizeY();
-                int rot = go.getOrientation() & 3;
-                if ((rot & 1) == 1)
-                {
-                    int tmp = sizeX;
-                    sizeX = sizeY;
-                    sizeY = tmp;
-                }
+                return AnchorIndex.NO_ANCHOR;
             }
-
-            // Shift anchor to SW corner of the object's footprint to avoid NE offset
-            int anchorX = wp.getX() - (sizeX - 1);
-            int anchorY = wp.getY() - (sizeY - 1);
-            WorldPoint sw = new WorldPoint(anchorX, anchorY, wp.getPlane());
-
-            // Use SW tile of the footprint as anchor. If not 2x2, still anchor at SW and overlay 2x2.
-            columnAnchors.add(sw);
+            return footprints.southWest(go, chunks, wv.getPlane());
         }
         catch (Exception ex)
         {
             log.debug("Failed recording column footprint: {}", ex.getMessage());
+            return AnchorIndex.NO_ANCHOR;
+        }
+    }
+
+    /**
+     * Returns the tile translation for a view's current scene, building it the first time
+     * the scene is seen.
+     *
+     * @param view the view's state
+     * @param wv   the world view
+     * @return the table, or null if the view has no scene
+     */
+    private InstanceChunkTable chunkTable(WorldViewState view, WorldView wv)
+    {
+        InstanceChunkTable table = view.getChunkTable();
+        if (table == null || table.getScene() != wv.getScene())
+        {
+            table = InstanceChunkTable.build(wv);
+            view.setChunkTable(table);
+        }
+        return table;
+    }
+
+    /**
+     * Reconciles the live stalagmite objects of every world view against its anchors.
+     */
+    void updateStalagmiteObjects()
+    {
+        updateStalagmiteObjects(topLevel);
+        for (int i = 0; i < subViews.size(); i++)
+        {
+            updateStalagmiteObjects(subViews.get(i));
         }
     }
 
-    private void updateStalagmiteObjects()
+    /**
+     * Reconciles the live stalagmite objects of a world view against its anchors.
+     * Replacements are only spawned for anchors that do not have one yet; removing an
+     * anchor from the index already removes its replacement.
+     */
+    private void updateStalagmiteObjects(WorldViewState view)
     {
         if (!config.replaceWithRocks() || !config.hideColumns()) {
             return;
         }
         
-        // Get the model ID from config
-        int modelId = NoStalactitesConfig.ROCK_FORMATION_ID;
-        
-        // Clear existing objects first
-        clearStalagmiteObjects();
-        
-        // Load the model if not already cached
-        Model model = modelCache.get(modelId);
-        if (model == null) {
-            model = client.loadModel(modelId);
-            if (model != null) {
-                modelCache.put(modelId, model);
-            } else {
-                log.warn("Failed to load model: {}", modelId);
-                return;
+        // Spawn models at each anchor that is missing one
+        long start = metrics.start();
+        StalagmiteEvent jfr = new StalagmiteEvent();
+        jfr.begin();
+        final int anchorStart = anchorsSpawned;
+        final int objectStart = objectsSpawned;
+        view.getColumnAnchors().forEach((anchor, objects) -> {
+            if (objects == null) {
+                spawnAtAnchor(view, anchor, NoStalactitesConfig.ROCK_FORMATION_ID);
             }
+        });
+        if (jfr.shouldCommit()) {
+            jfr.action = StalagmiteEvent.SPAWN;
+            jfr.anchors = anchorsSpawned - anchorStart;
+            jfr.objects = objectsSpawned - objectStart;
+            jfr.commit();
         }
-        
-        // Spawn models at each anchor
-        for (WorldPoint anchor : columnAnchors) {
-            spawnAtAnchor(anchor, modelId);
+        metrics.stop(Metric.REPLACEMENT_TIME, start);
+    }
+    
+    /**
+     * Spawns the replacement for a single anchor if it does not already have one.
+     *
+     * @param anchor the packed southwest anchor of a column footprint
+     */
+    private void reconcileAnchor(WorldViewState view, long anchor)
+    {
+        if (view.getColumnAnchors().get(anchor) != null) {
+            return;
         }
+        long start = metrics.start();
+        spawnAtAnchor(view, anchor, NoStalactitesConfig.ROCK_FORMATION_ID);
+        metrics.stop(Metric.REPLACEMENT_TIME, start);
     }
     
-    private void clearStalagmiteObjects()
+    private void clearStalagmiteObjects(WorldViewState view)
     {
         // This method is now a wrapper that ensures we're on the client thread
         if (client.isClientThread()) {
-            clearStalagmiteObjectsInternal();
+            clearStalagmiteObjectsInternal(view);
         } else {
-            clientThread.invoke(this::clearStalagmiteObjectsInternal);
+            clientThread.invoke(() -> clearStalagmiteObjectsInternal(view));
         }
     }
     
-    private void clearStalagmiteObjectsInternal()
+    private void clearStalagmiteObjectsInternal(WorldViewState view)
     {
         try {
-            for (List<RuneLiteObject> objects : stalagmiteObjects.values()) {
-                for (RuneLiteObject obj : objects) {
-                    try {
-                        if (obj != null) {
-                            obj.setActive(false);
-                        }
-                    } catch (Exception e) {
-                        log.debug("Error deactivating object: {}", e.getMessage());
-                    }
-                }
+            StalagmiteEvent jfr = new StalagmiteEvent();
+            jfr.begin();
+            final int released = objectsReleased;
+            view.getColumnAnchors().clearValues(this::deactivateAll);
+            if (jfr.shouldCommit()) {
+                jfr.action = StalagmiteEvent.CLEAR;
+                jfr.anchors = view.getColumnAnchors().size();
+                jfr.objects = objectsReleased - released;
+                jfr.commit();
             }
-            stalagmiteObjects.clear();
-            modelCache.clear();
         } catch (Exception e) {
             log.error("Error clearing stalagmite objects: {}", e.getMessage(), e);
         }
     }
+    
+    private void deactivateAll(List<RuneLiteObject> objects)
+    {
+        for (RuneLiteObject obj : objects) {
+            try {
+                if (obj != null) {
+                    objectPool.release(obj);
+                    objectsReleased++;
+                }
+            } catch (Exception e) {
+                log.debug("Error deactivating object: {}", e.getMessage());
+            }
+        }
+    }
 
-    private void spawnAtAnchor(WorldPoint anchor, int modelId)
+    private void spawnAtAnchor(WorldViewState view, long anchor, int modelId)
     {
+        WorldView wv = worldView(view);
+        InstanceChunkTable chunks = wv != null ? chunkTable(view, wv) : null;
+        if (chunks == null)
+        {
+            return;
+        }
+        // Sub world views move with their entity, so only the top-level view uses the radius
+        // and the frame budget's limits
+        boolean active = view != topLevel || replacementLod.inRange(anchor);
+        int shown = view == topLevel ? replacementLod.getPerFootprint() : Integer.MAX_VALUE;
+        if (config.mergeReplacements())
+        {
+            spawnMergedAtAnchor(view, chunks, wv.getId(), anchor, modelId, active);
+            return;
+        }
         try
         {
             List<RuneLiteObject> list = new ArrayList<>();
@@ -522,43 +2202,33 @@ public class NoStalactitesPlugin extends Plugin
             {
                 for (int dy = 0; dy < 2; dy++)
                 {
-                    WorldPoint wp = new WorldPoint(anchor.getX() + dx, anchor.getY() + dy, anchor.getPlane());
-                    var lp = net.runelite.api.coords.LocalPoint.fromWorld(client, wp);
-                    if (lp == null)
+                    int plane = AnchorIndex.plane(anchor);
+                    int tile = chunks.toScene(AnchorIndex.x(anchor) + dx, AnchorIndex.y(anchor) + dy, plane);
+                    if (tile == InstanceChunkTable.NO_TILE)
                     {
                         continue;
                     }
 
-                    // Create and configure the RuneLiteObject
-                    RuneLiteObject obj = client.createRuneLiteObject();
-                    Model model = modelCache.get(modelId);
+                    // Use a different pre-rotated variant for each object (0°, 90°, 180°, 270°)
+                    Model model = modelCache.get(modelId, rotationIndex);
                     if (model == null) {
-                        model = client.loadModel(modelId);
-                        if (model == null) {
-                            log.warn("Failed to load model: {}", modelId);
-                            continue;
-                        }
-                        modelCache.put(modelId, model);
+                        log.warn("Failed to load model: {}", modelId);
+                        continue;
                     }
-                    
-                    // Calculate position using world coordinates
-                    LocalPoint localPoint = LocalPoint.fromWorld(client, wp.getX(), wp.getY());
-                    if (localPoint == null) continue;
-                    
-                    // Set up the object with fixed rotation
-                    obj.setModel(model);
-                    obj.setActive(true);
+                    rotationIndex = (rotationIndex + 1) % ModelCache.ROTATIONS;
                     
                     // Position the object at the tile center
-                    int plane = wp.getPlane();
+                    LocalPoint localPoint = new LocalPoint((InstanceChunkTable.sceneX(tile) << 7) + 64,
+                        (InstanceChunkTable.sceneY(tile) << 7) + 64, wv.getId());
                     
-                    // Use a different rotation for each object (0°, 90°, 180°, 270°)
-                    int rotation = ROTATIONS[rotationIndex % ROTATIONS.length];
-                    rotationIndex++;
+                    // Reuse a pooled RuneLiteObject if one is available
+                    RuneLiteObject obj = objectPool.acquire();
+                    obj.setModel(model);
+                    obj.setActive(active && list.size() < shown);
                     
-                    // Apply position and rotation
+                    // Apply position; the rotation is baked into the model
                     obj.setLocation(localPoint, -plane * 128);
-                    obj.setOrientation(rotation);
+                    obj.setOrientation(0);
                     
                     list.add(obj);
                 }
@@ -566,7 +2236,10 @@ public class NoStalactitesPlugin extends Plugin
             
             // Store the created objects
             if (!list.isEmpty()) {
-                stalagmiteObjects.put(anchor, list);
+                view.getColumnAnchors().set(anchor, list);
+                metrics.add(Metric.REPLACEMENTS_SPAWNED, list.size());
+                anchorsSpawned++;
+                objectsSpawned += list.size();
             }
         }
         catch (Exception ex)
@@ -574,5 +2247,59 @@ public class NoStalactitesPlugin extends Plugin
             log.debug("Failed spawning stalagmite models: {}", ex.getMessage());
         }
     }
+
+    /**
+     * Spawns a single replacement covering the whole 2x2 footprint of an anchor, using a
+     * merged model shared with every other anchor that gets the same rotation layout.
+     *
+     * @param view        the world view the anchor belongs to
+     * @param chunks      the tile translation for the view's scene
+     * @param worldViewId the id of the world view
+     * @param anchor      the packed southwest anchor of a column footprint
+     * @param modelId     the model used on each tile
+     * @param active      whether the replacement starts out shown
+     */
+    private void spawnMergedAtAnchor(WorldViewState view, InstanceChunkTable chunks, int worldViewId, long anchor,
+        int modelId, boolean active)
+    {
+        try
+        {
+            int x = AnchorIndex.x(anchor);
+            int y = AnchorIndex.y(anchor);
+            int plane = AnchorIndex.plane(anchor);
+            int sw = chunks.toScene(x, y, plane);
+            int ne = chunks.toScene(x + 1, y + 1, plane);
+            if (sw == InstanceChunkTable.NO_TILE || ne == InstanceChunkTable.NO_TILE)
+            {
+                return;
+            }
+            Model model = modelCache.getMerged(modelId, rotationIndex);
+            if (model == null)
+            {
+                log.warn("Failed to load model: {}", modelId);
+                return;
+            }
+            rotationIndex = (rotationIndex + 1) % ModelCache.ROTATIONS;
+
+            // The merged model is centred on the corner shared by the footprint's four tiles,
+            // wherever a rotated instance chunk has put them
+            LocalPoint centre = new LocalPoint((InstanceChunkTable.sceneX(sw) + InstanceChunkTable.sceneX(ne) + 1) << 6,
+                (InstanceChunkTable.sceneY(sw) + InstanceChunkTable.sceneY(ne) + 1) << 6, worldViewId);
+            RuneLiteObject obj = objectPool.acquire();
+            obj.setModel(model);
+            obj.setActive(active);
+            obj.setLocation(centre, -plane * 128);
+            obj.setOrientation(0);
+
+            view.getColumnAnchors().set(anchor, Collections.singletonList(obj));
+            metrics.increment(Metric.REPLACEMENTS_SPAWNED);
+            anchorsSpawned++;
+            objectsSpawned++;
+        }
+        catch (Exception ex)
+        {
+            log.debug("Failed spawning merged stalagmite model: {}", ex.getMessage());
+        }
+    }
 }
 
@@ -0,0 +1,62 @@
+package com.nostalactites;
+
+/**
+ * The object categories handled by the plugin. A category decides which
+ * {@link ObjectMatcher} flags its objects get under the current configuration; the object
+ * IDs belonging to each category are listed in the {@link ObjectRuleCatalog}.
+ */
+enum ObjectCategory
+{
+    /**
+     * Hanging stalactites.
+     */
+    STALACTITES
+    {
+        @Override
+        int flags(NoStalactitesConfig config)
+        {
+            return config.hideStalactites() ? ObjectMatcher.HIDE : ObjectMatcher.NONE;
+        }
+    },
+
+    /**
+     * Cave support columns.
+     */
+    COLUMNS
+    {
+        @Override
+        int flags(NoStalactitesConfig config)
+        {
+            if (!config.hideColumns())
+            {
+                return ObjectMatcher.NONE;
+            }
+            int flags = ObjectMatcher.HIDE;
+            if (config.replaceWithRocks())
+            {
+                flags |= ObjectMatcher.REPLACE;
+            }
+            return flags;
+        }
+    },
+
+    /**
+     * Additional column variants. These are listed with the columns but are never hidden.
+     */
+    COLUMN_VARIANTS
+    {
+        @Override
+        int flags(NoStalactitesConfig config)
+        {
+            return ObjectMatcher.NONE;
+        }
+    };
+
+    /**
+     * Resolves the {@link ObjectMatcher} flags for objects of this category.
+     *
+     * @param config the plugin configuration
+     * @return the flags, or {@link ObjectMatcher#NONE}
+     */
+    abstract int flags(NoStalactitesConfig config);
+}
@@ -0,0 +1,73 @@
+package com.nostalactites;
+
+/**
+ * Classifies scene objects by ID.
+ * <p>
+ * A single lookup returns a bit mask of flags describing what the plugin should do with
+ * an object, so the event handlers never need to consult the configuration or test
+ * several ID lists for the same object.
+ */
+interface ObjectMatcher
+{
+    /**
+     * No flags; the object is left alone.
+     */
+    int NONE = 0;
+
+    /**
+     * The object should be removed from the scene.
+     */
+    int HIDE = 1;
+
+    /**
+     * The object's footprint should receive replacement stalagmites.
+     */
+    int REPLACE = 1 << 1;
+
+    /**
+     * Looks up the flags for an object ID.
+     *
+     * @param id the object ID
+     * @return the flags for the ID, or {@link #NONE} if it is not matched
+     */
+    int match(int id);
+
+    /**
+     * @return the highest object ID this matcher can return flags for, or -1 if it matches nothing
+     */
+    int maxId();
+
+    /**
+     * @return the union of the flags this matcher returns for any ID
+     */
+    int allFlags();
+
+    /**
+     * Computes the flags that the next matcher sets for at least one ID that the previous
+     * matcher did not set them for.
+     *
+     * @param previous the matcher previously in effect
+     * @param next     the matcher now in effect
+     * @return the union of newly set flags across all IDs
+     */
+    static int addedFlags(ObjectMatcher previous, ObjectMatcher next)
+    {
+        int added = NONE;
+        for (int id = 0, max = next.maxId(); id <= max; id++)
+        {
+            added |= next.match(id) & ~previous.match(id);
+        }
+        return added;
+    }
+
+    /**
+     * Convenience check for the {@link #HIDE} flag.
+     *
+     * @param id the object ID
+     * @return true if the object should be hidden
+     */
+    default boolean isHidden(int id)
+    {
+        return (match(id) & HIDE) != 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.nostalactites;
+
+/**
+ * A category of scene objects the plugin can act on.
+ * <p>
+ * Rules are compiled into an {@link ObjectMatcher} whenever the configuration changes.
+ * New object categories are added by supplying another rule; the event handlers only
+ * ever see the compiled flags.
+ */
+interface ObjectRule
+{
+    /**
+     * @return the object IDs covered by this rule
+     */
+    int[] ids();
+
+    /**
+     * Resolves the {@link ObjectMatcher} flags this rule contributes under the given configuration.
+     *
+     * @param config the plugin configuration
+     * @return the flags to apply to every ID of this rule, or {@link ObjectMatcher#NONE}
+     */
+    int flags(NoStalactitesConfig config);
+}
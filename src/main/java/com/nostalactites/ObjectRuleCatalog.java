@@ -0,0 +1,230 @@
+package com.nostalactites;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The bundled catalog of object rules, indexed by map region.
+ * <p>
+ * Each rule assigns a set of object IDs to an {@link ObjectCategory}, either everywhere or
+ * only in the listed map regions. The catalog is read from {@code object_rules.json} the
+ * first time rules are requested, and the rules for a scene are then looked up from the
+ * regions it covers, so the matcher only ever holds the rules for the current area.
+ * Thread-safe.
+ */
+@Slf4j
+final class ObjectRuleCatalog
+{
+    private static final String RESOURCE = "object_rules.json";
+
+    private final Gson gson;
+
+    private volatile Index index;
+
+    ObjectRuleCatalog(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /**
+     * Collects the rules that apply to a scene.
+     *
+     * @param regions the map regions of the scene, or null if unknown, in which case only
+     *                global rules apply
+     * @return the applicable rules, empty if the scene has none
+     */
+    List<ObjectRule> rulesFor(int[] regions)
+    {
+        Index index = index();
+        if (regions == null || index.byRegion.isEmpty())
+        {
+            return Collections.unmodifiableList(index.global);
+        }
+
+        Set<ObjectRule> rules = null;
+        for (int region : regions)
+        {
+            List<ObjectRule> regional = index.byRegion.get(region);
+            if (regional == null)
+            {
+                continue;
+            }
+            if (rules == null)
+            {
+                rules = new LinkedHashSet<>(index.global);
+            }
+            rules.addAll(regional);
+        }
+        return Collections.unmodifiableList(rules == null ? index.global : new ArrayList<>(rules));
+    }
+
+    /**
+     * @return every rule in the catalog, regardless of region
+     */
+    List<ObjectRule> allRules()
+    {
+        return index().all;
+    }
+
+    /**
+     * @return a hash of the catalog's rules, which changes whenever the rules do
+     */
+    int fingerprint()
+    {
+        return index().fingerprint;
+    }
+
+    private Index index()
+    {
+        Index index = this.index;
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = this.index;
+                if (index == null)
+                {
+                    index = load();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private Index load()
+    {
+        CatalogFile file;
+        try (InputStream in = ObjectRuleCatalog.class.getResourceAsStream(RESOURCE))
+        {
+            if (in == null)
+            {
+                log.warn("Object rule catalog {} is missing", RESOURCE);
+                return new Index();
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
+            {
+                file = gson.fromJson(reader, CatalogFile.class);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.warn("Unable to read object rule catalog: {}", e.getMessage());
+            return new Index();
+        }
+
+        Index index = new Index();
+        if (file == null || file.rules == null)
+        {
+            return index;
+        }
+        for (CatalogEntry entry : file.rules)
+        {
+            ObjectCategory category;
+            try
+            {
+                category = ObjectCategory.valueOf(entry.category);
+            }
+            catch (IllegalArgumentException | NullPointerException e)
+            {
+                log.warn("Skipping catalog rule with unknown category {}", entry.category);
+                continue;
+            }
+            if (entry.ids == null || entry.ids.length == 0)
+            {
+                continue;
+            }
+
+            ObjectRule rule = new CatalogRule(category, entry.ids.clone());
+            index.all.add(rule);
+            index.fingerprint = 31 * (31 * (31 * index.fingerprint + category.ordinal())
+                + Arrays.hashCode(entry.ids)) + Arrays.hashCode(entry.regions);
+            if (entry.regions == null || entry.regions.length == 0)
+            {
+                index.global.add(rule);
+            }
+            else
+            {
+                for (int region : entry.regions)
+                {
+                    index.byRegion.computeIfAbsent(region, r -> new ArrayList<>()).add(rule);
+                }
+            }
+        }
+        log.debug("Loaded {} object rules, {} region-specific across {} regions",
+            index.all.size(), index.all.size() - index.global.size(), index.byRegion.size());
+        return index;
+    }
+
+    /**
+     * The loaded catalog.
+     */
+    private static final class Index
+    {
+        final List<ObjectRule> all = new ArrayList<>();
+        final List<ObjectRule> global = new ArrayList<>();
+        final Map<Integer, List<ObjectRule>> byRegion = new HashMap<>();
+        int fingerprint = 1;
+    }
+
+    /**
+     * A catalog rule: a set of object IDs belonging to one category.
+     */
+    private static final class CatalogRule implements ObjectRule
+    {
+        private final ObjectCategory category;
+        private final int[] ids;
+
+        CatalogRule(ObjectCategory category, int[] ids)
+        {
+            this.category = category;
+            this.ids = ids;
+        }
+
+        @Override
+        public int[] ids()
+        {
+            return ids.clone();
+        }
+
+        @Override
+        public int flags(NoStalactitesConfig config)
+        {
+            return category.flags(config);
+        }
+
+        @Override
+        public String toString()
+        {
+            return category + Arrays.toString(ids);
+        }
+    }
+
+    /**
+     * The JSON layout of the catalog resource.
+     */
+    private static final class CatalogFile
+    {
+        List<CatalogEntry> rules = Collections.emptyList();
+    }
+
+    private static final class CatalogEntry
+    {
+        String category;
+        int[] ids;
+        int[] regions;
+    }
+}
@@ -0,0 +1,186 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+
+/**
+ * Counters and timers for the plugin's hot paths, kept per second and per scene load.
+ * <p>
+ * While disabled every call is a single flag check; {@link #start()} does not even read
+ * the clock. Updates and reads must happen on the client thread.
+ */
+final class PluginMetrics
+{
+    /**
+     * A counter or timer. Timers accumulate nanoseconds.
+     */
+    enum Metric
+    {
+        EVENTS_MATCHED("Events matched", false),
+        OBJECTS_REMOVED("Objects removed", false),
+        FOOTPRINTS_RECORDED("Footprints recorded", false),
+        REPLACEMENTS_SPAWNED("Replacements spawned", false),
+        SPAWN_BATCH_TIME("Spawn batches", true),
+        SCENE_SWEEP_TIME("Scene sweeps", true),
+        CONFIG_DELTA_TIME("Config changes", true),
+        FOOTPRINT_TIME("Column footprints", true),
+        REPLACEMENT_TIME("Replacements", true);
+
+        final String label;
+        final boolean timer;
+
+        Metric(String label, boolean timer)
+        {
+            this.label = label;
+            this.timer = timer;
+        }
+    }
+
+    /**
+     * Timers that are not nested in one another, and so add up to the plugin's time on the
+     * client thread.
+     */
+    static final Metric[] CLIENT_THREAD_TIMERS = {
+        Metric.SPAWN_BATCH_TIME, Metric.SCENE_SWEEP_TIME, Metric.CONFIG_DELTA_TIME
+    };
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    private static final int METRICS = Metric.values().length;
+
+    private volatile boolean enabled;
+
+    private final long[] currentSecond = new long[METRICS];
+    private final long[] lastSecond = new long[METRICS];
+    private final long[] scene = new long[METRICS];
+    private long secondStart;
+    private int sceneLoads;
+
+    boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Turns collection on or off. Enabling starts from empty counters.
+     */
+    void setEnabled(boolean enabled)
+    {
+        if (enabled && !this.enabled)
+        {
+            Arrays.fill(currentSecond, 0L);
+            Arrays.fill(lastSecond, 0L);
+            Arrays.fill(scene, 0L);
+            secondStart = System.nanoTime();
+            sceneLoads = 0;
+        }
+        this.enabled = enabled;
+    }
+
+    void increment(Metric metric)
+    {
+        if (enabled)
+        {
+            record(metric, 1L);
+        }
+    }
+
+    void add(Metric metric, long amount)
+    {
+        if (enabled)
+        {
+            record(metric, amount);
+        }
+    }
+
+    /**
+     * @return the start time to pass to {@link #stop}, or 0 while disabled
+     */
+    long start()
+    {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Adds the time since {@code start} to a timer.
+     *
+     * @param metric the timer
+     * @param start  the value returned by {@link #start()}
+     */
+    void stop(Metric metric, long start)
+    {
+        if (start != 0L && enabled)
+        {
+            record(metric, System.nanoTime() - start);
+        }
+    }
+
+    private void record(Metric metric, long amount)
+    {
+        currentSecond[metric.ordinal()] += amount;
+        scene[metric.ordinal()] += amount;
+    }
+
+    /**
+     * Rolls the per-second window over once a second has passed. Called every frame.
+     */
+    void tick()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = now - secondStart;
+        if (elapsed < SECOND_NANOS)
+        {
+            return;
+        }
+        if (elapsed < 2 * SECOND_NANOS)
+        {
+            System.arraycopy(currentSecond, 0, lastSecond, 0, METRICS);
+        }
+        else
+        {
+            // No frames for over a second; the last full second saw nothing
+            Arrays.fill(lastSecond, 0L);
+        }
+        Arrays.fill(currentSecond, 0L);
+        secondStart = now;
+    }
+
+    /**
+     * Starts the per-scene view over. Called when a scene starts loading.
+     */
+    void sceneLoading()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        Arrays.fill(scene, 0L);
+        sceneLoads++;
+    }
+
+    /**
+     * @return the metric's total over the last full second
+     */
+    long perSecond(Metric metric)
+    {
+        return lastSecond[metric.ordinal()];
+    }
+
+    /**
+     * @return the metric's total since the current scene started loading
+     */
+    long perScene(Metric metric)
+    {
+        return scene[metric.ordinal()];
+    }
+
+    /**
+     * @return the number of scene loads since metrics were enabled
+     */
+    int getSceneLoads()
+    {
+        return sceneLoads;
+    }
+}
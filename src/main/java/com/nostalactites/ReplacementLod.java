@@ -0,0 +1,234 @@
+package com.nostalactites;
+
+import java.util.List;
+import net.runelite.api.RuneLiteObject;
+
+/**
+ * Keeps only the replacements near the player active, and optionally only some of the
+ * objects of each replacement.
+ * <p>
+ * Distance is measured in 8x8 scene chunks: a replacement is shown while the scene chunk
+ * of its anchor is within the radius of the player's on either axis. Anchors are translated
+ * to the scene through its {@link InstanceChunkTable}, since neighbouring chunks of an
+ * instance may come from template chunks far apart. The radius is the smaller of the
+ * configured one and a limit set by the {@link FrameBudgetGovernor}, which may also cap
+ * the objects shown per footprint. The active set only changes when the player enters
+ * another chunk, and then, outside instances, only the anchors in map regions overlapping
+ * the old or new window are visited, rather than every anchor in the index. Must only be
+ * used on the client thread.
+ */
+final class ReplacementLod
+{
+    private static final int CHUNK_SHIFT = 3;
+    private static final int REGION_SHIFT = 6;
+
+    /**
+     * Radius in chunks, or -1 while every replacement is shown.
+     */
+    private int radius = -1;
+
+    /**
+     * The configured radius and the frame budget's radius, in chunks, or -1 if unlimited.
+     */
+    private int configRadius = -1;
+    private int limitRadius = -1;
+
+    /**
+     * Objects shown per replacement; the rest of its objects stay inactive.
+     */
+    private int perFootprint = Integer.MAX_VALUE;
+
+    /**
+     * The translation of the scene the window is in, set along with the centre.
+     */
+    private InstanceChunkTable chunks;
+    private boolean hasCentre;
+    private int centreX;
+    private int centreY;
+
+    /**
+     * The window being left while {@link #moveTo} updates the active set.
+     */
+    private int previousX;
+    private int previousY;
+    private boolean hadCentre;
+
+    private final AnchorIndex.Visitor<List<RuneLiteObject>> moveVisitor = this::updateMoved;
+    private final AnchorIndex.Visitor<List<RuneLiteObject>> applyVisitor = this::updateAll;
+
+    /**
+     * @return true if replacements are limited to a radius around the player
+     */
+    boolean isEnabled()
+    {
+        return radius >= 0;
+    }
+
+    /**
+     * @return the number of objects shown per replacement
+     */
+    int getPerFootprint()
+    {
+        return perFootprint;
+    }
+
+    /**
+     * Sets the configured radius and brings every replacement in line with it.
+     *
+     * @param tiles   the radius in tiles, or 0 to show every replacement
+     * @param anchors the anchors and their replacements
+     */
+    void setRadius(int tiles, AnchorIndex<List<RuneLiteObject>> anchors)
+    {
+        configRadius = toChunks(tiles);
+        apply(perFootprint, anchors);
+    }
+
+    /**
+     * Sets the limits imposed by the frame budget and brings every replacement in line with
+     * them. The configured radius still applies if it is smaller.
+     *
+     * @param perFootprint the number of objects shown per replacement
+     * @param tiles        the radius in tiles, or 0 for no limit
+     * @param anchors      the anchors and their replacements
+     */
+    void setLimit(int perFootprint, int tiles, AnchorIndex<List<RuneLiteObject>> anchors)
+    {
+        limitRadius = toChunks(tiles);
+        apply(perFootprint, anchors);
+    }
+
+    private void apply(int perFootprint, AnchorIndex<List<RuneLiteObject>> anchors)
+    {
+        int radius = configRadius < 0 ? limitRadius
+            : limitRadius < 0 ? configRadius : Math.min(configRadius, limitRadius);
+        if (radius == this.radius && perFootprint == this.perFootprint)
+        {
+            return;
+        }
+        this.radius = radius;
+        this.perFootprint = perFootprint;
+        anchors.forEach(applyVisitor);
+    }
+
+    private static int toChunks(int tiles)
+    {
+        return tiles > 0 ? (tiles + (1 << CHUNK_SHIFT) - 1) >> CHUNK_SHIFT : -1;
+    }
+
+    /**
+     * @param anchor the packed anchor
+     * @return true if the anchor's replacement should be active
+     */
+    boolean inRange(long anchor)
+    {
+        return radius < 0 || !hasCentre || inWindow(anchor, centreX, centreY);
+    }
+
+    /**
+     * Forgets the player's position when the scene changes, showing every replacement until
+     * the window is moved into the new scene.
+     */
+    void clearCentre()
+    {
+        hasCentre = false;
+        chunks = null;
+    }
+
+    /**
+     * Moves the window to the player's position, activating replacements that came into range
+     * and deactivating those that went out of range.
+     *
+     * @param sceneX  the player's scene X
+     * @param sceneY  the player's scene Y
+     * @param chunks  the translation of the scene the player is in
+     * @param anchors the anchors and their replacements
+     */
+    void moveTo(int sceneX, int sceneY, InstanceChunkTable chunks, AnchorIndex<List<RuneLiteObject>> anchors)
+    {
+        int chunkX = sceneX >> CHUNK_SHIFT;
+        int chunkY = sceneY >> CHUNK_SHIFT;
+        if (hasCentre && chunkX == centreX && chunkY == centreY && chunks == this.chunks)
+        {
+            return;
+        }
+
+        previousX = centreX;
+        previousY = centreY;
+        // The previous window means nothing in another scene
+        hadCentre = hasCentre && chunks == this.chunks;
+        centreX = chunkX;
+        centreY = chunkY;
+        hasCentre = true;
+        this.chunks = chunks;
+        if (radius < 0)
+        {
+            return;
+        }
+        if (!hadCentre)
+        {
+            anchors.forEach(applyVisitor);
+            return;
+        }
+        if (chunks.isInstance())
+        {
+            // Template regions are scattered across the scene, and instances hold few anchors
+            anchors.forEach(moveVisitor);
+            return;
+        }
+
+        // Visit each region overlapping the old or new window once
+        int minX = (chunks.getBaseX() + ((Math.min(previousX, centreX) - radius) << CHUNK_SHIFT)) >> REGION_SHIFT;
+        int maxX = (chunks.getBaseX() + ((Math.max(previousX, centreX) + radius) << CHUNK_SHIFT)) >> REGION_SHIFT;
+        int minY = (chunks.getBaseY() + ((Math.min(previousY, centreY) - radius) << CHUNK_SHIFT)) >> REGION_SHIFT;
+        int maxY = (chunks.getBaseY() + ((Math.max(previousY, centreY) + radius) << CHUNK_SHIFT)) >> REGION_SHIFT;
+        for (int rx = Math.max(0, minX); rx <= maxX; rx++)
+        {
+            for (int ry = Math.max(0, minY); ry <= maxY; ry++)
+            {
+                anchors.forEachInRegion((rx << 8) | ry, moveVisitor);
+            }
+        }
+    }
+
+    private boolean inWindow(long anchor, int chunkX, int chunkY)
+    {
+        int tile = chunks.toScene(AnchorIndex.x(anchor), AnchorIndex.y(anchor), AnchorIndex.plane(anchor));
+        if (tile == InstanceChunkTable.NO_TILE)
+        {
+            return false;
+        }
+        return Math.abs((InstanceChunkTable.sceneX(tile) >> CHUNK_SHIFT) - chunkX) <= radius
+            && Math.abs((InstanceChunkTable.sceneY(tile) >> CHUNK_SHIFT) - chunkY) <= radius;
+    }
+
+    private void updateMoved(long anchor, List<RuneLiteObject> objects)
+    {
+        if (objects == null)
+        {
+            return;
+        }
+        boolean was = inWindow(anchor, previousX, previousY);
+        boolean now = inWindow(anchor, centreX, centreY);
+        if (was != now)
+        {
+            setActive(objects, now);
+        }
+    }
+
+    private void updateAll(long anchor, List<RuneLiteObject> objects)
+    {
+        if (objects != null)
+        {
+            setActive(objects, inRange(anchor));
+        }
+    }
+
+    private void setActive(List<RuneLiteObject> objects, boolean active)
+    {
+        for (int i = 0; i < objects.size(); i++)
+        {
+            objects.get(i).setActive(active && i < perFootprint);
+        }
+    }
+}
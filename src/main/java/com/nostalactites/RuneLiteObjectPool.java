@@ -0,0 +1,94 @@
+package com.nostalactites;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import net.runelite.api.Client;
+import net.runelite.api.RuneLiteObject;
+
+/**
+ * Pool of deactivated {@link RuneLiteObject}s for reuse by replacement spawning.
+ * <p>
+ * Released objects are deactivated and kept, up to a high-water cap, so respawning
+ * replacements only needs a model, location and orientation update instead of a new
+ * object. Must only be used on the client thread.
+ */
+final class RuneLiteObjectPool
+{
+    /**
+     * Maximum number of idle objects kept.
+     */
+    private static final int MAX_IDLE = 512;
+
+    private final Deque<RuneLiteObject> idle = new ArrayDeque<>();
+    private final Client client;
+
+    /**
+     * Number of idle objects at the last {@link #trim()} that have not been acquired since.
+     */
+    private int untouchedSinceTrim;
+
+    RuneLiteObjectPool(Client client)
+    {
+        this.client = client;
+    }
+
+    /**
+     * Takes an idle object from the pool, or creates one if the pool is empty.
+     * The returned object is inactive.
+     *
+     * @return the object
+     */
+    RuneLiteObject acquire()
+    {
+        RuneLiteObject obj = idle.pollFirst();
+        if (obj == null)
+        {
+            return client.createRuneLiteObject();
+        }
+        untouchedSinceTrim = Math.min(untouchedSinceTrim, idle.size());
+        return obj;
+    }
+
+    /**
+     * Deactivates an object and returns it to the pool, discarding it if the pool is full.
+     *
+     * @param obj the object to release
+     */
+    void release(RuneLiteObject obj)
+    {
+        obj.setActive(false);
+        if (idle.size() < MAX_IDLE)
+        {
+            idle.addFirst(obj);
+        }
+    }
+
+    /**
+     * Discards the objects that sat idle since the previous trim, as they are surplus to the
+     * number of replacements a scene actually needs. Called on scene change.
+     *
+     * @return the number of objects discarded
+     */
+    int trim()
+    {
+        // Idle objects are taken from the front, so the untouched ones are at the back
+        int discard = untouchedSinceTrim;
+        for (int i = 0; i < discard; i++)
+        {
+            idle.pollLast();
+        }
+        untouchedSinceTrim = idle.size();
+        return discard;
+    }
+
+    int size()
+    {
+        return idle.size();
+    }
+
+    void clear()
+    {
+        idle.clear();
+        untouchedSinceTrim = 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.nostalactites;
+
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+
+/**
+ * Removes hidden objects from a scene while it is still being loaded, before the client
+ * swaps it in and uploads it for rendering.
+ * <p>
+ * The sweep runs on the map loading thread and only touches the scene being loaded. The
+ * removed objects are kept so the client thread can record them and their column
+ * footprints once the scene is live; see {@link #getRemoved()}.
+ */
+final class ScenePreload
+{
+    private final Scene scene;
+    private final SpawnBatch removed = new SpawnBatch();
+    private int tilesVisited;
+    private long elapsedNanos;
+
+    private ScenePreload(Scene scene)
+    {
+        this.scene = scene;
+    }
+
+    /**
+     * Sweeps a scene that is not live yet, removing every object the matcher hides.
+     *
+     * @param scene   the scene being loaded
+     * @param matcher the matcher for the scene's regions
+     * @return the completed preload
+     */
+    static ScenePreload run(Scene scene, ObjectMatcher matcher)
+    {
+        long start = System.nanoTime();
+        ScenePreload preload = new ScenePreload(scene);
+        SceneSweep sweep = new SceneSweep(scene, matcher);
+        sweep.step(0L, preload::hideOnTile);
+        preload.tilesVisited = sweep.getTilesVisited();
+        preload.elapsedNanos = System.nanoTime() - start;
+        return preload;
+    }
+
+    private void hideOnTile(SceneSweep sweep, Tile tile)
+    {
+        ObjectMatcher matcher = sweep.getMatcher();
+        GameObject[] objs = tile.getGameObjects();
+        if (objs != null)
+        {
+            for (GameObject go : objs)
+            {
+                if (go == null)
+                {
+                    continue;
+                }
+                int flags = matcher.match(go.getId());
+                if ((flags & ObjectMatcher.HIDE) != 0)
+                {
+                    scene.removeGameObject(go);
+                    removed.addGameObject(go, flags);
+                }
+            }
+        }
+
+        GroundObject ground = tile.getGroundObject();
+        if (ground != null && matcher.isHidden(ground.getId()))
+        {
+            tile.setGroundObject(null);
+            removed.addGroundObject(tile, ground);
+        }
+    }
+
+    Scene getScene()
+    {
+        return scene;
+    }
+
+    /**
+     * @return the objects removed from the scene, with their matcher flags. Only to be read
+     *         once the preload has been handed over to the client thread.
+     */
+    SpawnBatch getRemoved()
+    {
+        return removed;
+    }
+
+    int getTilesVisited()
+    {
+        return tilesVisited;
+    }
+
+    long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+}
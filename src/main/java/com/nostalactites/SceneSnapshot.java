@@ -0,0 +1,256 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+
+/**
+ * A compact copy of the object IDs in a scene that can be matched off the client thread.
+ * <p>
+ * {@link #capture(Scene)} must run on the client thread and only copies IDs and tile
+ * positions into primitive arrays. {@link #scan(ObjectMatcher)} may then run on any thread
+ * and matches the entries in parallel, one fork per range of tile columns. The result is
+ * applied back on the client thread with {@link #forEachMatch}, which re-checks each
+ * object against the live tile since the scene may have changed in the meantime.
+ */
+final class SceneSnapshot
+{
+    /**
+     * Receives each matched object when a scan result is applied.
+     */
+    interface MatchVisitor
+    {
+        /**
+         * @param tile   the live tile holding the object
+         * @param obj    the game object, or null if the match is the tile's ground object
+         * @param ground the ground object, or null if the match is a game object
+         * @param flags  the {@link ObjectMatcher} flags of the match
+         */
+        void visit(Tile tile, GameObject obj, GroundObject ground, int flags);
+    }
+
+    private static final int GROUND_BIT = 1;
+    private static final int COLUMNS_PER_TASK = 16;
+
+    private final Scene scene;
+    private final Tile[][][] tiles;
+
+    private int[] ids = new int[1024];
+    /**
+     * Packed plane, x, y and ground bit of each entry.
+     */
+    private int[] locations = new int[1024];
+    private int count;
+
+    /**
+     * Start offset of each plane/x column within the entry arrays, plus a final end offset.
+     */
+    private int[] columnStarts;
+    private int columns;
+
+    private SceneSnapshot(Scene scene, Tile[][][] tiles)
+    {
+        this.scene = scene;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Copies the IDs of every game and ground object in the scene.
+     *
+     * @param scene the scene to capture
+     * @return the snapshot
+     */
+    static SceneSnapshot capture(Scene scene)
+    {
+        Tile[][][] tiles = scene.getTiles();
+        SceneSnapshot snapshot = new SceneSnapshot(scene, tiles);
+        if (tiles == null)
+        {
+            snapshot.columnStarts = new int[1];
+            return snapshot;
+        }
+
+        int totalColumns = 0;
+        for (Tile[][] plane : tiles)
+        {
+            totalColumns += plane != null ? plane.length : 0;
+        }
+        snapshot.columnStarts = new int[totalColumns + 1];
+
+        for (int z = 0; z < tiles.length; z++)
+        {
+            Tile[][] plane = tiles[z];
+            if (plane == null)
+            {
+                continue;
+            }
+            for (int x = 0; x < plane.length; x++)
+            {
+                snapshot.columnStarts[snapshot.columns++] = snapshot.count;
+                Tile[] col = plane[x];
+                if (col == null)
+                {
+                    continue;
+                }
+                for (int y = 0; y < col.length; y++)
+                {
+                    Tile t = col[y];
+                    if (t == null)
+                    {
+                        continue;
+                    }
+                    int location = (z << 24) | (x << 16) | (y << 8);
+                    GameObject[] objs = t.getGameObjects();
+                    if (objs != null)
+                    {
+                        for (GameObject go : objs)
+                        {
+                            if (go != null)
+                            {
+                                snapshot.add(go.getId(), location);
+                            }
+                        }
+                    }
+                    GroundObject ground = t.getGroundObject();
+                    if (ground != null)
+                    {
+                        snapshot.add(ground.getId(), location | GROUND_BIT);
+                    }
+                }
+            }
+        }
+        snapshot.columnStarts[snapshot.columns] = snapshot.count;
+        return snapshot;
+    }
+
+    private void add(int id, int location)
+    {
+        if (count == ids.length)
+        {
+            ids = Arrays.copyOf(ids, count * 2);
+            locations = Arrays.copyOf(locations, count * 2);
+        }
+        ids[count] = id;
+        locations[count] = location;
+        count++;
+    }
+
+    Scene getScene()
+    {
+        return scene;
+    }
+
+    int size()
+    {
+        return count;
+    }
+
+    /**
+     * Matches every entry in parallel on the common fork-join pool. Safe to call from any thread.
+     *
+     * @param matcher the matcher to apply
+     * @return the flags for each entry, in entry order
+     */
+    byte[] scan(ObjectMatcher matcher)
+    {
+        byte[] result = new byte[count];
+        if (columns > 0)
+        {
+            ForkJoinPool.commonPool().invoke(new ScanTask(matcher, result, 0, columns));
+        }
+        return result;
+    }
+
+    /**
+     * Applies a scan result to the live scene. Must run on the client thread.
+     * Entries whose object is no longer on its tile are skipped.
+     *
+     * @param result  the result of {@link #scan(ObjectMatcher)}
+     * @param visitor receives each matched object that is still present
+     * @return the number of objects passed to the visitor
+     */
+    int forEachMatch(byte[] result, MatchVisitor visitor)
+    {
+        int matched = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int flags = result[i];
+            if ((flags & ObjectMatcher.HIDE) == 0)
+            {
+                continue;
+            }
+            int location = locations[i];
+            Tile t = tiles[location >>> 24][(location >>> 16) & 0xFF][(location >>> 8) & 0xFF];
+            if (t == null)
+            {
+                continue;
+            }
+
+            int id = ids[i];
+            if ((location & GROUND_BIT) != 0)
+            {
+                GroundObject ground = t.getGroundObject();
+                if (ground != null && ground.getId() == id)
+                {
+                    visitor.visit(t, null, ground, flags);
+                    matched++;
+                }
+                continue;
+            }
+
+            GameObject[] objs = t.getGameObjects();
+            if (objs == null)
+            {
+                continue;
+            }
+            for (GameObject go : objs)
+            {
+                if (go != null && go.getId() == id)
+                {
+                    visitor.visit(t, go, null, flags);
+                    matched++;
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Matches the entries of a range of tile columns, splitting until the range is small.
+     */
+    private final class ScanTask extends RecursiveAction
+    {
+        private final ObjectMatcher matcher;
+        private final byte[] result;
+        private final int lo;
+        private final int hi;
+
+        ScanTask(ObjectMatcher matcher, byte[] result, int lo, int hi)
+        {
+            this.matcher = matcher;
+            this.result = result;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (hi - lo <= COLUMNS_PER_TASK)
+            {
+                for (int i = columnStarts[lo], end = columnStarts[hi]; i < end; i++)
+                {
+                    result[i] = (byte) matcher.match(ids[i]);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ScanTask(matcher, result, lo, mid), new ScanTask(matcher, result, mid, hi));
+        }
+    }
+}
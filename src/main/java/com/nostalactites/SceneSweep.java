@@ -0,0 +1,131 @@
+package com.nostalactites;
+
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+
+/**
+ * A resumable walk over every tile of a scene.
+ * <p>
+ * The sweep keeps a plane/x/y cursor so it can be advanced a slice at a time across
+ * several frames, staying within a per-frame time budget. Not thread-safe; sweeps of the
+ * live scene run on the client thread, and {@link ScenePreload} sweeps a scene that is not
+ * live yet on the map loading thread.
+ */
+final class SceneSweep
+{
+    /**
+     * Receives each non-null tile of the scene.
+     */
+    interface TileVisitor
+    {
+        void visit(SceneSweep sweep, Tile tile);
+    }
+
+    /**
+     * Number of tiles visited between clock reads.
+     */
+    private static final int TILES_PER_CLOCK_CHECK = 32;
+
+    private final Scene scene;
+    private final Tile[][][] tiles;
+    private final ObjectMatcher matcher;
+    private final long startNanos = System.nanoTime();
+
+    private int z;
+    private int x;
+    private int y;
+    private int tilesVisited;
+    private int slices;
+
+    /**
+     * @param scene   the scene to sweep
+     * @param matcher the matcher in effect when the sweep was started
+     */
+    SceneSweep(Scene scene, ObjectMatcher matcher)
+    {
+        this.scene = scene;
+        this.tiles = scene.getTiles();
+        this.matcher = matcher;
+    }
+
+    Scene getScene()
+    {
+        return scene;
+    }
+
+    ObjectMatcher getMatcher()
+    {
+        return matcher;
+    }
+
+    /**
+     * Visits tiles until the sweep completes or the budget runs out.
+     *
+     * @param budgetNanos the time allowed for this slice, or 0 or less to run to completion
+     * @param visitor     receives each tile
+     * @return true if the sweep has completed
+     */
+    boolean step(long budgetNanos, TileVisitor visitor)
+    {
+        if (tiles == null)
+        {
+            return true;
+        }
+        slices++;
+
+        final long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+        int sinceCheck = 0;
+        for (; z < tiles.length; z++, x = 0)
+        {
+            Tile[][] plane = tiles[z];
+            if (plane == null)
+            {
+                continue;
+            }
+            for (; x < plane.length; x++, y = 0)
+            {
+                Tile[] col = plane[x];
+                if (col == null)
+                {
+                    continue;
+                }
+                while (y < col.length)
+                {
+                    Tile t = col[y++];
+                    if (t != null)
+                    {
+                        visitor.visit(this, t);
+                        tilesVisited++;
+                    }
+                    if (++sinceCheck == TILES_PER_CLOCK_CHECK)
+                    {
+                        sinceCheck = 0;
+                        if (System.nanoTime() >= deadline)
+                        {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    int getTilesVisited()
+    {
+        return tilesVisited;
+    }
+
+    int getSlices()
+    {
+        return slices;
+    }
+
+    /**
+     * @return the time since the sweep was created, in milliseconds
+     */
+    long getElapsedMillis()
+    {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
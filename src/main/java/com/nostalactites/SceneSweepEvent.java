@@ -0,0 +1,45 @@
+package com.nostalactites;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one unit of scene sweep work: a slice of a time-sliced sweep, the
+ * capture or apply phase of a parallel scan, or a sweep of a scene still being loaded, which
+ * runs on the map loading thread. Slices report the tiles
+ * they visited, parallel phases the objects in the snapshot.
+ */
+@Name("com.nostalactites.SceneSweep")
+@Label("Scene Sweep")
+@Category("No Stalactites")
+@Description("Removal of hidden objects from an already loaded scene")
+class SceneSweepEvent extends jdk.jfr.Event
+{
+    static final String SLICE = "slice";
+    static final String CAPTURE = "parallel capture";
+    static final String APPLY = "parallel apply";
+    static final String PRELOAD = "preload";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Tiles Visited")
+    int tiles;
+
+    @Label("Objects Scanned")
+    int objectsScanned;
+
+    @Label("Objects Removed")
+    int objectsRemoved;
+
+    @Label("Anchors Recorded")
+    int anchors;
+
+    @Label("Matched IDs")
+    String matchedIds;
+
+    @Label("Sweep Complete")
+    boolean complete;
+}
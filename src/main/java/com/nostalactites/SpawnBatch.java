@@ -0,0 +1,111 @@
+package com.nostalactites;
+
+import java.util.Arrays;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Tile;
+
+/**
+ * Collects matched objects from spawn events so they can be processed together.
+ * <p>
+ * The backing arrays are reused between drains and only ever grow, so queuing an
+ * object does not allocate once the batch has warmed up. Must only be used on the
+ * client thread.
+ */
+final class SpawnBatch
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private GameObject[] gameObjects = new GameObject[INITIAL_CAPACITY];
+    private int[] gameObjectFlags = new int[INITIAL_CAPACITY];
+    private int gameObjectCount;
+
+    private Tile[] groundTiles = new Tile[INITIAL_CAPACITY];
+    private GroundObject[] groundObjects = new GroundObject[INITIAL_CAPACITY];
+    private int groundObjectCount;
+
+    /**
+     * Queues a game object for removal.
+     *
+     * @param obj   the matched game object
+     * @param flags the {@link ObjectMatcher} flags for the object
+     */
+    void addGameObject(GameObject obj, int flags)
+    {
+        if (gameObjectCount == gameObjects.length)
+        {
+            int capacity = gameObjects.length * 2;
+            gameObjects = Arrays.copyOf(gameObjects, capacity);
+            gameObjectFlags = Arrays.copyOf(gameObjectFlags, capacity);
+        }
+        gameObjects[gameObjectCount] = obj;
+        gameObjectFlags[gameObjectCount] = flags;
+        gameObjectCount++;
+    }
+
+    /**
+     * Queues a ground object for removal from its tile.
+     *
+     * @param tile the tile holding the object
+     * @param obj  the matched ground object
+     */
+    void addGroundObject(Tile tile, GroundObject obj)
+    {
+        if (groundObjectCount == groundTiles.length)
+        {
+            int capacity = groundTiles.length * 2;
+            groundTiles = Arrays.copyOf(groundTiles, capacity);
+            groundObjects = Arrays.copyOf(groundObjects, capacity);
+        }
+        groundTiles[groundObjectCount] = tile;
+        groundObjects[groundObjectCount] = obj;
+        groundObjectCount++;
+    }
+
+    boolean isEmpty()
+    {
+        return gameObjectCount == 0 && groundObjectCount == 0;
+    }
+
+    int gameObjectCount()
+    {
+        return gameObjectCount;
+    }
+
+    GameObject gameObject(int index)
+    {
+        return gameObjects[index];
+    }
+
+    int gameObjectFlags(int index)
+    {
+        return gameObjectFlags[index];
+    }
+
+    int groundObjectCount()
+    {
+        return groundObjectCount;
+    }
+
+    Tile groundTile(int index)
+    {
+        return groundTiles[index];
+    }
+
+    GroundObject groundObject(int index)
+    {
+        return groundObjects[index];
+    }
+
+    /**
+     * Empties the batch, releasing references to the queued objects but keeping capacity.
+     */
+    void clear()
+    {
+        Arrays.fill(gameObjects, 0, gameObjectCount, null);
+        gameObjectCount = 0;
+        Arrays.fill(groundTiles, 0, groundObjectCount, null);
+        Arrays.fill(groundObjects, 0, groundObjectCount, null);
+        groundObjectCount = 0;
+    }
+}
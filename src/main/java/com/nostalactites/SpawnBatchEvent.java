@@ -0,0 +1,31 @@
+package com.nostalactites;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for draining the spawn batch before a frame.
+ */
+@Name("com.nostalactites.SpawnBatch")
+@Label("Spawn Batch")
+@Category("No Stalactites")
+@Description("Removal of objects matched by spawn events since the last frame")
+class SpawnBatchEvent extends jdk.jfr.Event
+{
+    @Label("Game Objects Queued")
+    int gameObjects;
+
+    @Label("Ground Objects Queued")
+    int groundObjects;
+
+    @Label("Objects Removed")
+    int objectsRemoved;
+
+    @Label("Anchors Recorded")
+    int anchors;
+
+    @Label("Matched IDs")
+    String matchedIds;
+}
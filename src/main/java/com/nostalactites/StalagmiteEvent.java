@@ -0,0 +1,28 @@
+package com.nostalactites;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for spawning or clearing replacement stalagmites.
+ */
+@Name("com.nostalactites.Stalagmites")
+@Label("Stalagmites")
+@Category("No Stalactites")
+@Description("Spawning or clearing of the replacement models for hidden columns")
+class StalagmiteEvent extends jdk.jfr.Event
+{
+    static final String SPAWN = "spawn";
+    static final String CLEAR = "clear";
+
+    @Label("Action")
+    String action;
+
+    @Label("Anchors Touched")
+    int anchors;
+
+    @Label("Objects")
+    int objects;
+}
@@ -0,0 +1,122 @@
+package com.nostalactites;
+
+import java.util.List;
+import net.runelite.api.RuneLiteObject;
+import net.runelite.api.Tile;
+
+/**
+ * Hiding and replacement state for a single world view: the top-level scene, or a sub
+ * world view such as a boat that carries its own scene.
+ * <p>
+ * Each view owns its column anchors, removed objects, queued spawns and sweep, so work
+ * for one view never touches another and a view's state is released with it. Must only
+ * be used on the client thread.
+ */
+final class WorldViewState
+{
+    /**
+     * Visits a tile of a view's scene during a sweep.
+     */
+    @FunctionalInterface
+    interface TileVisitor
+    {
+        void visit(WorldViewState view, SceneSweep sweep, Tile tile);
+    }
+
+    private final int id;
+
+    /**
+     * Tracks the southwest corner (anchor point) of each detected column footprint, partitioned
+     * by map region, along with the RuneLiteObject models spawned for it.
+     */
+    private final AnchorIndex<List<RuneLiteObject>> columnAnchors = new AnchorIndex<>();
+
+    /**
+     * Every object removed from the view's scene, so config changes can restore them in place.
+     */
+    private final HideRegistry hideRegistry = new HideRegistry();
+
+    /**
+     * Matched objects from spawn events, processed once per frame.
+     */
+    private final SpawnBatch spawnBatch = new SpawnBatch();
+
+    private final SceneSweep.TileVisitor hideVisitor;
+
+    /**
+     * The sweep of the view's scene in progress, if any.
+     */
+    private SceneSweep sceneSweep;
+
+    /**
+     * Tile translation for the view's current scene, built when the scene loads.
+     */
+    private InstanceChunkTable chunkTable;
+
+    /**
+     * @param id      the world view id, {@link net.runelite.api.WorldView#TOPLEVEL} for the top-level view
+     * @param visitor hides the matched objects on each tile swept in this view
+     */
+    WorldViewState(int id, TileVisitor visitor)
+    {
+        this.id = id;
+        this.hideVisitor = (sweep, tile) -> visitor.visit(this, sweep, tile);
+    }
+
+    int getId()
+    {
+        return id;
+    }
+
+    AnchorIndex<List<RuneLiteObject>> getColumnAnchors()
+    {
+        return columnAnchors;
+    }
+
+    HideRegistry getHideRegistry()
+    {
+        return hideRegistry;
+    }
+
+    SpawnBatch getSpawnBatch()
+    {
+        return spawnBatch;
+    }
+
+    SceneSweep.TileVisitor getHideVisitor()
+    {
+        return hideVisitor;
+    }
+
+    SceneSweep getSceneSweep()
+    {
+        return sceneSweep;
+    }
+
+    void setSceneSweep(SceneSweep sceneSweep)
+    {
+        this.sceneSweep = sceneSweep;
+    }
+
+    InstanceChunkTable getChunkTable()
+    {
+        return chunkTable;
+    }
+
+    void setChunkTable(InstanceChunkTable chunkTable)
+    {
+        this.chunkTable = chunkTable;
+    }
+
+    /**
+     * Drops queued spawns, the sweep, the removed object records and the tile translation,
+     * leaving the anchors.
+     */
+    void resetScene()
+    {
+        spawnBatch.clear();
+        sceneSweep = null;
+        hideRegistry.clear();
+        chunkTable = null;
+    }
+}
@@ -0,0 +1,174 @@
+package com.nostalactites;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AnchorDiskCacheTest
+{
+    private static final int REVISION = 230;
+    private static final int FINGERPRINT = 0x1234;
+
+    // Lumbridge and the region north of it
+    private static final int REGION = 12850;
+    private static final int OTHER_REGION = 12851;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp()
+    {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void writtenRegionsReadBackInANewCache()
+    {
+        long[] anchors = anchors(REGION, 3, 10, 20, 30);
+        long[] other = anchors(OTHER_REGION, 1, 63);
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        cache.put(REGION, anchors);
+        cache.put(OTHER_REGION, other);
+        assertTrue(cache.isDirty());
+        cache.write(cache.encode());
+        assertFalse(cache.isDirty());
+        // The encoded contents serve reads once the updates are cleared
+        assertArrayEquals(anchors, cache.get(REGION));
+
+        AnchorDiskCache read = cache(REVISION, FINGERPRINT);
+        assertArrayEquals(anchors, read.get(REGION));
+        assertArrayEquals(other, read.get(OTHER_REGION));
+        assertNull(read.get(REGION + 2));
+    }
+
+    @Test
+    public void regionsWithoutAnchorsAreDropped()
+    {
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        cache.put(REGION, anchors(REGION, 5));
+        cache.write(cache.encode());
+
+        AnchorDiskCache update = cache(REVISION, FINGERPRINT);
+        update.put(REGION, new long[0]);
+        update.write(update.encode());
+
+        assertNull(cache(REVISION, FINGERPRINT).get(REGION));
+    }
+
+    @Test
+    public void otherRevisionsAndRulesAreIgnored()
+    {
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        cache.put(REGION, anchors(REGION, 5));
+        cache.write(cache.encode());
+
+        assertNull(cache(REVISION + 1, FINGERPRINT).get(REGION));
+        assertNull(cache(REVISION, FINGERPRINT + 1).get(REGION));
+    }
+
+    @Test
+    public void theNewerFileWins()
+    {
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        cache.put(REGION, anchors(REGION, 5));
+        cache.write(cache.encode());
+        long[] second = anchors(REGION, 6, 7);
+        cache.put(REGION, second);
+        cache.write(cache.encode());
+        long[] third = anchors(REGION, 8);
+        cache.put(REGION, third);
+        cache.write(cache.encode());
+
+        // Both files exist, and the third write replaced the first one in slot 0
+        assertTrue(Files.isRegularFile(directory.resolve("anchors.0.bin")));
+        assertTrue(Files.isRegularFile(directory.resolve("anchors.1.bin")));
+        assertArrayEquals(third, cache(REVISION, FINGERPRINT).get(REGION));
+    }
+
+    @Test
+    public void writesFromAnotherClientAreNotOverwrittenByAnOlderGeneration()
+    {
+        // Two clients open the cache before either writes
+        AnchorDiskCache first = cache(REVISION, FINGERPRINT);
+        AnchorDiskCache second = cache(REVISION, FINGERPRINT);
+        assertNull(first.get(REGION));
+        assertNull(second.get(REGION));
+
+        first.put(REGION, anchors(REGION, 5));
+        first.write(first.encode());
+        long[] anchors = anchors(REGION, 9);
+        second.put(REGION, anchors);
+        second.write(second.encode());
+
+        assertArrayEquals(anchors, cache(REVISION, FINGERPRINT).get(REGION));
+    }
+
+    @Test
+    public void aTruncatedFileFallsBackToTheOlderOne() throws IOException
+    {
+        long[] anchors = anchors(REGION, 5, 6, 7);
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        cache.put(REGION, anchors);
+        cache.write(cache.encode());
+        cache.put(REGION, anchors(REGION, 1, 2, 3, 4));
+        cache.write(cache.encode());
+
+        // Cut the newer file short in the middle of its anchors
+        try (FileChannel channel = FileChannel.open(directory.resolve("anchors.1.bin"), StandardOpenOption.WRITE))
+        {
+            channel.truncate(channel.size() - 3);
+        }
+
+        AnchorDiskCache read = cache(REVISION, FINGERPRINT);
+        assertArrayEquals(anchors, read.get(REGION));
+        read.put(OTHER_REGION, anchors(OTHER_REGION, 1));
+        read.write(read.encode());
+        assertArrayEquals(anchors, cache(REVISION, FINGERPRINT).get(REGION));
+    }
+
+    @Test
+    public void anUnreadableCacheIsEmpty() throws IOException
+    {
+        Files.write(directory.resolve("anchors.0.bin"), new byte[]{1, 2, 3});
+        AnchorDiskCache cache = cache(REVISION, FINGERPRINT);
+        assertNull(cache.get(REGION));
+        cache.put(REGION, anchors(REGION, 5));
+        cache.write(cache.encode());
+        assertArrayEquals(anchors(REGION, 5), cache(REVISION, FINGERPRINT).get(REGION));
+    }
+
+    private AnchorDiskCache cache(int revision, int fingerprint)
+    {
+        return new AnchorDiskCache(directory, revision, fingerprint);
+    }
+
+    /**
+     * Anchors on plane 0 of a region, at the given offsets along its diagonal, in ascending
+     * order.
+     */
+    private static long[] anchors(int regionId, int... offsets)
+    {
+        int baseX = (regionId >> 8) << 6;
+        int baseY = (regionId & 0xFF) << 6;
+        long[] anchors = new long[offsets.length];
+        for (int i = 0; i < offsets.length; i++)
+        {
+            anchors[i] = AnchorIndex.pack(baseX + offsets[i], baseY + offsets[i], 0);
+        }
+        return anchors;
+    }
+}
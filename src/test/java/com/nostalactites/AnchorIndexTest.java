@@ -0,0 +1,242 @@
+package com.nostalactites;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class AnchorIndexTest
+{
+    // Lumbridge and its neighbours to the north and east
+    private static final int REGION = 12850;
+    private static final int NORTH = 12851;
+    private static final int EAST = 13106;
+
+    @Test
+    public void removingFromAChainThatWrapsKeepsTheRestReachable()
+    {
+        // Five anchors homed on the second to last slot fill it, the last slot and the first three
+        long[] chain = homedOn(REGION, AnchorIndex.INITIAL_REGION_CAPACITY - 2, 5);
+        for (long removed : chain)
+        {
+            AnchorIndex<String> index = new AnchorIndex<>();
+            for (long anchor : chain)
+            {
+                assertTrue(index.add(anchor));
+                index.set(anchor, name(anchor));
+            }
+
+            assertTrue(index.remove(removed, value -> assertEquals(name(removed), value)));
+            assertFalse(index.remove(removed, value -> { }));
+            assertNull(index.get(removed));
+            for (long anchor : chain)
+            {
+                if (anchor != removed)
+                {
+                    assertEquals(name(anchor), index.get(anchor));
+                }
+            }
+            assertEquals(chain.length - 1, index.size());
+            assertEquals(chain.length - 1, index.anchorsInRegion(REGION).length);
+
+            // The anchor can be added back
+            assertTrue(index.add(removed));
+            assertFalse(index.add(removed));
+            assertEquals(chain.length, index.size());
+            assertEquals(chain.length, index.anchorsInRegion(REGION).length);
+        }
+    }
+
+    @Test
+    public void removalShiftsEntriesHomedAcrossTheTableEnd()
+    {
+        // Two anchors homed on the last slot push one homed on the first slot further along
+        long[] last = homedOn(REGION, AnchorIndex.INITIAL_REGION_CAPACITY - 1, 2);
+        long first = homedOn(REGION, 0, 1)[0];
+        AnchorIndex<String> index = new AnchorIndex<>();
+        index.add(last[0]);
+        index.add(last[1]);
+        index.add(first);
+        index.set(last[1], "second");
+        index.set(first, "first");
+
+        assertTrue(index.remove(last[0], value -> { }));
+        assertEquals("second", index.get(last[1]));
+        assertEquals("first", index.get(first));
+        assertTrue(index.remove(last[1], value -> { }));
+        assertEquals("first", index.get(first));
+        assertTrue(index.remove(first, value -> { }));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void resizingKeepsWrappedChains()
+    {
+        AnchorIndex<String> index = new AnchorIndex<>();
+        long[] chain = homedOn(REGION, AnchorIndex.INITIAL_REGION_CAPACITY - 1, 6);
+        for (long anchor : chain)
+        {
+            index.add(anchor);
+            index.set(anchor, name(anchor));
+        }
+
+        // Grow the region's table several times over
+        List<Long> added = new ArrayList<>();
+        for (int y = 3200; y < 3264; y++)
+        {
+            long anchor = AnchorIndex.pack(3230, y, 1);
+            if (index.add(anchor))
+            {
+                index.set(anchor, name(anchor));
+                added.add(anchor);
+            }
+        }
+        assertEquals(chain.length + added.size(), index.size());
+        for (long anchor : chain)
+        {
+            assertEquals(name(anchor), index.get(anchor));
+        }
+        for (long anchor : added)
+        {
+            assertEquals(name(anchor), index.get(anchor));
+        }
+
+        for (long anchor : chain)
+        {
+            assertTrue(index.remove(anchor, value -> { }));
+        }
+        for (long anchor : added)
+        {
+            assertEquals(name(anchor), index.get(anchor));
+        }
+        assertEquals(added.size(), index.anchorsInRegion(REGION).length);
+    }
+
+    @Test
+    public void randomOperationsMatchAHashMap()
+    {
+        Random random = new Random(1234);
+        AnchorIndex<String> index = new AnchorIndex<>();
+        Map<Long, String> expected = new HashMap<>();
+        int[] regions = {REGION, NORTH};
+        for (int op = 0; op < 50_000; op++)
+        {
+            int region = regions[random.nextInt(regions.length)];
+            // A small area keeps chains long and removals frequent
+            long anchor = AnchorIndex.pack(((region >> 8) << 6) + random.nextInt(12),
+                ((region & 0xFF) << 6) + random.nextInt(12), random.nextInt(2));
+            switch (random.nextInt(3))
+            {
+                case 0:
+                    assertEquals(!expected.containsKey(anchor), index.add(anchor));
+                    expected.putIfAbsent(anchor, null);
+                    break;
+                case 1:
+                    if (expected.containsKey(anchor))
+                    {
+                        String value = "v" + op;
+                        assertEquals(expected.put(anchor, value), index.set(anchor, value));
+                    }
+                    else
+                    {
+                        assertNull(index.set(anchor, "unused"));
+                    }
+                    break;
+                default:
+                    boolean present = expected.containsKey(anchor);
+                    String value = expected.remove(anchor);
+                    List<String> received = new ArrayList<>();
+                    assertEquals(present, index.remove(anchor, received::add));
+                    assertEquals(value == null ? 0 : 1, received.size());
+                    break;
+            }
+            assertEquals(expected.size(), index.size());
+        }
+
+        Map<Long, String> visited = new HashMap<>();
+        index.forEach((anchor, value) -> assertNull(visited.put(anchor, value)));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void evictingRegionsLeavesTheOthersIntact()
+    {
+        AnchorIndex<String> index = new AnchorIndex<>();
+        Map<Long, String> kept = new HashMap<>();
+        Set<String> evicted = new HashSet<>();
+        for (int region : new int[]{REGION, NORTH, EAST})
+        {
+            for (long anchor : homedOn(region, 3, 10))
+            {
+                index.add(anchor);
+                index.set(anchor, name(anchor));
+                if (region == NORTH)
+                {
+                    evicted.add(name(anchor));
+                }
+                else
+                {
+                    kept.put(anchor, name(anchor));
+                }
+            }
+        }
+        // An anchor without a replacement is evicted too, without a callback
+        index.add(AnchorIndex.pack(3210, 3270, 0));
+
+        Set<String> received = new HashSet<>();
+        assertEquals(11, index.evictRegions(region -> region != NORTH, received::add));
+        assertEquals(evicted, received);
+        assertEquals(kept.size(), index.size());
+        assertEquals(0, index.anchorsInRegion(NORTH).length);
+        index.forEachInRegion(NORTH, (anchor, value) -> { throw new AssertionError("evicted anchor visited"); });
+        for (Map.Entry<Long, String> entry : kept.entrySet())
+        {
+            assertEquals(entry.getValue(), index.get(entry.getKey()));
+        }
+
+        // The evicted region starts over
+        assertTrue(index.add(AnchorIndex.pack(3210, 3270, 0)));
+        assertEquals(kept.size() + 1, index.size());
+    }
+
+    /**
+     * Finds anchors in a region whose home slot in a new region table is the given one.
+     */
+    private static long[] homedOn(int regionId, int slot, int count)
+    {
+        int baseX = (regionId >> 8) << 6;
+        int baseY = (regionId & 0xFF) << 6;
+        long[] anchors = new long[count];
+        int n = 0;
+        for (int plane = 0; plane < 4 && n < count; plane++)
+        {
+            for (int x = 0; x < 64 && n < count; x++)
+            {
+                for (int y = 0; y < 64 && n < count; y++)
+                {
+                    long anchor = AnchorIndex.pack(baseX + x, baseY + y, plane);
+                    if ((AnchorIndex.hash(anchor) & (AnchorIndex.INITIAL_REGION_CAPACITY - 1)) == slot)
+                    {
+                        anchors[n++] = anchor;
+                    }
+                }
+            }
+        }
+        assertEquals(count, n);
+        return anchors;
+    }
+
+    private static String name(long anchor)
+    {
+        return AnchorIndex.x(anchor) + "," + AnchorIndex.y(anchor) + "," + AnchorIndex.plane(anchor);
+    }
+}
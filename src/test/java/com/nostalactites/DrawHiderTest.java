@@ -0,0 +1,65 @@
+package com.nostalactites;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.GameObject;
+import net.runelite.api.Renderable;
+import org.junit.Test;
+
+public class DrawHiderTest
+{
+    private static final int STALACTITE = 12577;
+
+    private final ObjectMatcher matcher = CompiledObjectMatcher.compile(Collections.singletonList(new ObjectRule()
+    {
+        @Override
+        public int[] ids()
+        {
+            return new int[]{STALACTITE};
+        }
+
+        @Override
+        public int flags(NoStalactitesConfig config)
+        {
+            return ObjectMatcher.HIDE;
+        }
+    }), null);
+
+    @Test
+    public void aSharedModelStaysHiddenUntilTheLastPlacementDespawns()
+    {
+        // The client hands both placements the same model
+        Renderable model = Fakes.fake(Renderable.class);
+        GameObject first = gameObject(model);
+        GameObject second = gameObject(model);
+        DrawHider hider = new DrawHider();
+        hider.track(first);
+        hider.track(second);
+        // Tracking an object twice, from its spawn and a sweep, counts it once
+        hider.track(second);
+        assertFalse(hider.isVisible(model, matcher));
+
+        hider.forget(first);
+        assertFalse(hider.isVisible(model, matcher));
+        // Forgetting an object twice does not release the model early
+        hider.forget(first);
+        assertFalse(hider.isVisible(model, matcher));
+
+        hider.forget(second);
+        assertTrue(hider.isVisible(model, matcher));
+        assertEquals(0, hider.size());
+    }
+
+    private static GameObject gameObject(Renderable renderable)
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getRenderable", (p, a) -> renderable);
+        h.put("getId", (p, a) -> STALACTITE);
+        return Fakes.fake(GameObject.class, h);
+    }
+}
@@ -0,0 +1,310 @@
+package com.nostalactites;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Model;
+import net.runelite.api.ModelData;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.RuneLiteObject;
+import net.runelite.api.WorldView;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * A stand-in {@link Client} backed by a {@link FakeScene}, for running the plugin headless.
+ * <p>
+ * The calling thread is treated as the client thread. Work the plugin defers with
+ * {@link ClientThread#invokeLater} is queued until {@link #runPendingInvokes()}.
+ */
+final class FakeClient
+{
+    /**
+     * Runs the plugin's background work, like the client's shared executor.
+     */
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fake-client-executor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Client client;
+    private final FakeClientThread clientThread = new FakeClientThread();
+    private final Set<RuneLiteObject> activeObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Integer, WorldView> worldViews = new HashMap<>();
+
+    private FakeScene scene;
+    private GameState gameState = GameState.LOGGED_IN;
+    private int createdObjects;
+    private int modelLoads;
+
+    /**
+     * Runs invocations immediately, except for deferred ones which are queued. Deferred work
+     * may be queued from any thread, as the parallel sweep does.
+     */
+    static final class FakeClientThread extends ClientThread
+    {
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void invoke(Runnable r)
+        {
+            r.run();
+        }
+
+        @Override
+        public void invokeLater(Runnable r)
+        {
+            pending.add(r);
+        }
+
+        @Override
+        public void invokeAtTickEnd(Runnable r)
+        {
+            pending.add(r);
+        }
+
+        void runPending()
+        {
+            for (int i = pending.size(); i > 0; i--)
+            {
+                pending.poll().run();
+            }
+        }
+    }
+
+    FakeClient(FakeScene scene)
+    {
+        this.scene = scene;
+
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getTopLevelWorldView", (p, a) -> this.scene.getWorldView());
+        h.put("getWorldView", (p, a) -> {
+            int id = (int) a[0];
+            return id == -1 ? this.scene.getWorldView() : worldViews.get(id);
+        });
+        h.put("getScene", (p, a) -> this.scene.getScene());
+        h.put("getGameState", (p, a) -> gameState);
+        h.put("setGameState", (p, a) -> {
+            gameState = (GameState) a[0];
+            return null;
+        });
+        h.put("isClientThread", (p, a) -> true);
+        h.put("getPlane", (p, a) -> 0);
+        h.put("getBaseX", (p, a) -> this.scene.getBaseX());
+        h.put("getBaseY", (p, a) -> this.scene.getBaseY());
+        h.put("getMapRegions", (p, a) -> this.scene.getMapRegions());
+        h.put("isInInstancedRegion", (p, a) -> false);
+        h.put("getRevision", (p, a) -> 230);
+        h.put("getObjectDefinition", (p, a) -> objectDefinition((int) a[0]));
+        h.put("loadModelData", (p, a) -> {
+            modelLoads++;
+            return modelData();
+        });
+        h.put("mergeModels", (p, a) -> modelData());
+        h.put("loadModel", (p, a) -> {
+            modelLoads++;
+            return Fakes.fake(Model.class);
+        });
+        h.put("createRuneLiteObject", (p, a) -> {
+            createdObjects++;
+            return runeLiteObject();
+        });
+        this.client = Fakes.fake(Client.class, h);
+    }
+
+    Client getClient()
+    {
+        return client;
+    }
+
+    ClientThread getClientThread()
+    {
+        return clientThread;
+    }
+
+    FakeScene getScene()
+    {
+        return scene;
+    }
+
+    /**
+     * Swaps in a different scene, as if the player moved to another area.
+     */
+    void setScene(FakeScene scene)
+    {
+        this.scene = scene;
+    }
+
+    void setGameState(GameState gameState)
+    {
+        this.gameState = gameState;
+    }
+
+    /**
+     * Registers an additional world view by ID.
+     */
+    void addWorldView(WorldView worldView)
+    {
+        worldViews.put(worldView.getId(), worldView);
+    }
+
+    void removeWorldView(int id)
+    {
+        worldViews.remove(id);
+    }
+
+    /**
+     * Runs the work deferred with {@link ClientThread#invokeLater} so far.
+     */
+    void runPendingInvokes()
+    {
+        clientThread.runPending();
+    }
+
+    /**
+     * Runs deferred work until the plugin has finished starting up, including the part
+     * prepared on the executor.
+     */
+    void awaitStartUp(NoStalactitesPlugin plugin)
+    {
+        while (plugin.isStartUpPending())
+        {
+            clientThread.runPending();
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the number of replacement objects currently active in the scene
+     */
+    int getActiveObjects()
+    {
+        return activeObjects.size();
+    }
+
+    /**
+     * @return the number of replacement objects created so far
+     */
+    int getCreatedObjects()
+    {
+        return createdObjects;
+    }
+
+    int getModelLoads()
+    {
+        return modelLoads;
+    }
+
+    /**
+     * Creates a plugin wired to this client with the given config values.
+     *
+     * @param config config values keyed by method name; unspecified values use the defaults
+     * @return the plugin, not yet started
+     */
+    NoStalactitesPlugin newPlugin(Map<String, Object> config)
+    {
+        NoStalactitesPlugin plugin = new NoStalactitesPlugin();
+        Fakes.inject(plugin, "client", client);
+        Fakes.inject(plugin, "clientThread", clientThread);
+        Fakes.inject(plugin, "config", Fakes.config(config));
+        Fakes.inject(plugin, "gson", new Gson());
+        Fakes.inject(plugin, "executor", EXECUTOR);
+        Fakes.inject(plugin, "anchorCacheDirectory", newCacheDirectory());
+        return plugin;
+    }
+
+    /**
+     * Creates an empty directory for the plugin's anchor cache, deleted when the JVM exits.
+     */
+    private static File newCacheDirectory()
+    {
+        try
+        {
+            Path dir = Files.createTempDirectory("nostalactites");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                File[] files = dir.toFile().listFiles();
+                if (files != null)
+                {
+                    for (File file : files)
+                    {
+                        file.delete();
+                    }
+                }
+                dir.toFile().delete();
+            }));
+            return dir.toFile();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ObjectComposition objectDefinition(int id)
+    {
+        int size = id == FakeScene.COLUMN_ID ? 2 : 1;
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getId", (p, a) -> id);
+        h.put("getSizeX", (p, a) -> size);
+        h.put("getSizeY", (p, a) -> size);
+        return Fakes.fake(ObjectComposition.class, h);
+    }
+
+    private static ModelData modelData()
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        Fakes.Handler self = (p, a) -> p;
+        h.put("cloneVertices", self);
+        h.put("shallowCopy", self);
+        h.put("rotateY90Ccw", self);
+        h.put("rotateY180Ccw", self);
+        h.put("rotateY270Ccw", self);
+        h.put("translate", self);
+        h.put("light", (p, a) -> Fakes.fake(Model.class));
+        return Fakes.fake(ModelData.class, h);
+    }
+
+    private RuneLiteObject runeLiteObject()
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        Object[] location = new Object[1];
+        Object[] model = new Object[1];
+        h.put("setActive", (p, a) -> {
+            if ((boolean) a[0])
+            {
+                activeObjects.add((RuneLiteObject) p);
+            }
+            else
+            {
+                activeObjects.remove(p);
+            }
+            return null;
+        });
+        h.put("isActive", (p, a) -> activeObjects.contains(p));
+        h.put("setLocation", (p, a) -> {
+            location[0] = a[0];
+            return null;
+        });
+        h.put("getLocation", (p, a) -> location[0]);
+        h.put("setModel", (p, a) -> {
+            model[0] = a[0];
+            return null;
+        });
+        h.put("getModel", (p, a) -> model[0]);
+        return Fakes.fake(RuneLiteObject.class, h);
+    }
+}
@@ -0,0 +1,443 @@
+package com.nostalactites;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Renderable;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * A synthetic scene of fake tiles and objects for benchmarks and the replay harness.
+ * <p>
+ * Tiles on the ground plane are filled with unrelated scenery, stalactites and 2x2 columns
+ * at the given densities. {@link #reset()} puts back everything removed from the scene, so
+ * the same scene can be swept repeatedly.
+ */
+final class FakeScene
+{
+    static final int FILLER_ID = 1000;
+    static final int STALACTITE_ID = 12577;
+    static final int STALACTITE_GROUND_ID = 11189;
+    static final int COLUMN_ID = 11184;
+
+    private static final int PLANES = 4;
+    private static final int TILE_SLOTS = 5;
+
+    /**
+     * State behind each fake game or ground object.
+     */
+    private static final class ObjectState
+    {
+        final int id;
+        final int sceneX;
+        final int sceneY;
+        final int size;
+
+        ObjectState(int id, int sceneX, int sceneY, int size)
+        {
+            this.id = id;
+            this.sceneX = sceneX;
+            this.sceneY = sceneY;
+            this.size = size;
+        }
+    }
+
+    private final int size;
+    private final int baseX;
+    private final int baseY;
+    private final int worldViewId;
+
+    private final Tile[][][] tiles;
+    private final GameObject[][][][] tileObjects;
+    private final GroundObject[][][] tileGround;
+    private final GameObject[][][][] originalObjects;
+    private final GroundObject[][][] originalGround;
+
+    private final Map<Object, ObjectState> states = new IdentityHashMap<>();
+    private final List<GameObject> gameObjects = new ArrayList<>();
+    private final List<GroundObject> groundObjects = new ArrayList<>();
+    private int columnCount;
+    private int removals;
+
+    private final Scene scene;
+    private final WorldView worldView;
+
+    /**
+     * @param size              the scene width and height in tiles
+     * @param baseX             the world x of the scene's south-west tile
+     * @param baseY             the world y of the scene's south-west tile
+     * @param columnDensity     the chance a tile is the south-west corner of a column
+     * @param stalactiteDensity the chance a tile holds a stalactite
+     * @param seed              the random seed
+     */
+    FakeScene(int size, int baseX, int baseY, double columnDensity, double stalactiteDensity, long seed)
+    {
+        this(size, baseX, baseY, columnDensity, stalactiteDensity, seed, -1);
+    }
+
+    FakeScene(int size, int baseX, int baseY, double columnDensity, double stalactiteDensity, long seed, int worldViewId)
+    {
+        this.size = size;
+        this.baseX = baseX;
+        this.baseY = baseY;
+        this.worldViewId = worldViewId;
+        this.tiles = new Tile[PLANES][size][size];
+        this.tileObjects = new GameObject[PLANES][size][size][];
+        this.tileGround = new GroundObject[PLANES][size][size];
+        this.originalObjects = new GameObject[PLANES][size][size][];
+        this.originalGround = new GroundObject[PLANES][size][size];
+
+        this.scene = fakeScene();
+        this.worldView = fakeWorldView();
+
+        for (int z = 0; z < PLANES; z++)
+        {
+            for (int x = 0; x < size; x++)
+            {
+                for (int y = 0; y < size; y++)
+                {
+                    tileObjects[z][x][y] = new GameObject[TILE_SLOTS];
+                    tiles[z][x][y] = fakeTile(z, x, y);
+                }
+            }
+        }
+
+        Random random = new Random(seed);
+        for (int x = 0; x < size; x++)
+        {
+            for (int y = 0; y < size; y++)
+            {
+                if (random.nextInt(3) == 0)
+                {
+                    place(FILLER_ID + random.nextInt(500), x, y, 1);
+                }
+                if (random.nextDouble() < stalactiteDensity)
+                {
+                    place(STALACTITE_ID, x, y, 1);
+                }
+                if (random.nextDouble() < stalactiteDensity)
+                {
+                    GroundObject ground = fakeGroundObject(new ObjectState(STALACTITE_GROUND_ID, x, y, 1));
+                    tileGround[0][x][y] = ground;
+                    groundObjects.add(ground);
+                }
+                if (x + 1 < size && y + 1 < size && random.nextDouble() < columnDensity && isFree(x, y, 2))
+                {
+                    place(COLUMN_ID, x, y, 2);
+                    columnCount++;
+                }
+            }
+        }
+
+        for (int x = 0; x < size; x++)
+        {
+            for (int y = 0; y < size; y++)
+            {
+                originalObjects[0][x][y] = tileObjects[0][x][y].clone();
+                originalGround[0][x][y] = tileGround[0][x][y];
+            }
+        }
+    }
+
+    Scene getScene()
+    {
+        return scene;
+    }
+
+    WorldView getWorldView()
+    {
+        return worldView;
+    }
+
+    int getSize()
+    {
+        return size;
+    }
+
+    int getBaseX()
+    {
+        return baseX;
+    }
+
+    int getBaseY()
+    {
+        return baseY;
+    }
+
+    int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    int getRemovals()
+    {
+        return removals;
+    }
+
+    Tile getTile(int plane, int x, int y)
+    {
+        return tiles[plane][x][y];
+    }
+
+    /**
+     * @return every game object placed in the scene, including ones since removed
+     */
+    List<GameObject> getGameObjects()
+    {
+        return gameObjects;
+    }
+
+    /**
+     * @return every ground object placed in the scene, including ones since removed
+     */
+    List<GroundObject> getGroundObjects()
+    {
+        return groundObjects;
+    }
+
+    /**
+     * @return the tile a game or ground object was placed on; the south-west tile for larger objects
+     */
+    Tile tileOf(Object obj)
+    {
+        ObjectState state = states.get(obj);
+        return tiles[0][state.sceneX][state.sceneY];
+    }
+
+    /**
+     * @return true if a game or ground object placed in the scene has not been removed
+     */
+    boolean isPresent(Object obj)
+    {
+        ObjectState state = states.get(obj);
+        if (obj instanceof GroundObject)
+        {
+            return tileGround[0][state.sceneX][state.sceneY] == obj;
+        }
+        for (GameObject go : tileObjects[0][state.sceneX][state.sceneY])
+        {
+            if (go == obj)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the IDs of the map regions covered by the scene
+     */
+    int[] getMapRegions()
+    {
+        int minRx = baseX >> 6, maxRx = (baseX + size - 1) >> 6;
+        int minRy = baseY >> 6, maxRy = (baseY + size - 1) >> 6;
+        int[] regions = new int[(maxRx - minRx + 1) * (maxRy - minRy + 1)];
+        int i = 0;
+        for (int rx = minRx; rx <= maxRx; rx++)
+        {
+            for (int ry = minRy; ry <= maxRy; ry++)
+            {
+                regions[i++] = (rx << 8) | ry;
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Puts back every object removed from the scene.
+     */
+    void reset()
+    {
+        for (int x = 0; x < size; x++)
+        {
+            for (int y = 0; y < size; y++)
+            {
+                System.arraycopy(originalObjects[0][x][y], 0, tileObjects[0][x][y], 0, TILE_SLOTS);
+                tileGround[0][x][y] = originalGround[0][x][y];
+            }
+        }
+        removals = 0;
+    }
+
+    private boolean isFree(int x, int y, int footprint)
+    {
+        for (int dx = 0; dx < footprint; dx++)
+        {
+            for (int dy = 0; dy < footprint; dy++)
+            {
+                GameObject[] objs = tileObjects[0][x + dx][y + dy];
+                if (objs[TILE_SLOTS - 1] != null)
+                {
+                    return false;
+                }
+                for (GameObject go : objs)
+                {
+                    if (go != null && states.get(go).id == COLUMN_ID)
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void place(int id, int x, int y, int footprint)
+    {
+        GameObject obj = fakeGameObject(new ObjectState(id, x, y, footprint));
+        gameObjects.add(obj);
+        for (int dx = 0; dx < footprint; dx++)
+        {
+            for (int dy = 0; dy < footprint; dy++)
+            {
+                GameObject[] objs = tileObjects[0][x + dx][y + dy];
+                for (int i = 0; i < objs.length; i++)
+                {
+                    if (objs[i] == null)
+                    {
+                        objs[i] = obj;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeGameObject(GameObject obj)
+    {
+        ObjectState state = states.get(obj);
+        if (state == null)
+        {
+            return;
+        }
+        for (int dx = 0; dx < state.size; dx++)
+        {
+            for (int dy = 0; dy < state.size; dy++)
+            {
+                GameObject[] objs = tileObjects[0][state.sceneX + dx][state.sceneY + dy];
+                for (int i = 0; i < objs.length; i++)
+                {
+                    if (objs[i] == obj)
+                    {
+                        objs[i] = null;
+                        removals++;
+                    }
+                }
+            }
+        }
+    }
+
+    private Scene fakeScene()
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getTiles", (p, a) -> tiles);
+        h.put("removeGameObject", (p, a) -> {
+            removeGameObject((GameObject) a[0]);
+            return null;
+        });
+        h.put("getBaseX", (p, a) -> baseX);
+        h.put("getBaseY", (p, a) -> baseY);
+        h.put("isInstance", (p, a) -> false);
+        h.put("getWorldViewId", (p, a) -> worldViewId);
+        return Fakes.fake(Scene.class, h);
+    }
+
+    private WorldView fakeWorldView()
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getScene", (p, a) -> scene);
+        h.put("getId", (p, a) -> worldViewId);
+        h.put("isTopLevel", (p, a) -> worldViewId == -1);
+        h.put("isInstance", (p, a) -> false);
+        h.put("getPlane", (p, a) -> 0);
+        h.put("getBaseX", (p, a) -> baseX);
+        h.put("getBaseY", (p, a) -> baseY);
+        h.put("getSizeX", (p, a) -> size);
+        h.put("getSizeY", (p, a) -> size);
+        h.put("getMapRegions", (p, a) -> getMapRegions());
+        h.put("contains", (p, a) -> {
+            if (a[0] instanceof WorldPoint)
+            {
+                WorldPoint wp = (WorldPoint) a[0];
+                return inScene(wp.getX() - baseX, wp.getY() - baseY);
+            }
+            if (a[0] instanceof LocalPoint)
+            {
+                LocalPoint lp = (LocalPoint) a[0];
+                return inScene(lp.getX() >> 7, lp.getY() >> 7);
+            }
+            return false;
+        });
+        return Fakes.fake(WorldView.class, h);
+    }
+
+    private boolean inScene(int sceneX, int sceneY)
+    {
+        return sceneX >= 0 && sceneY >= 0 && sceneX < size && sceneY < size;
+    }
+
+    private Tile fakeTile(int z, int x, int y)
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getGameObjects", (p, a) -> tileObjects[z][x][y]);
+        h.put("getGroundObject", (p, a) -> tileGround[z][x][y]);
+        h.put("setGroundObject", (p, a) -> {
+            if (a[0] == null && tileGround[z][x][y] != null)
+            {
+                removals++;
+            }
+            tileGround[z][x][y] = (GroundObject) a[0];
+            return null;
+        });
+        h.put("getPlane", (p, a) -> z);
+        h.put("getRenderLevel", (p, a) -> z);
+        h.put("getWorldLocation", (p, a) -> new WorldPoint(baseX + x, baseY + y, z));
+        h.put("getLocalLocation", (p, a) -> new LocalPoint((x << 7) + 64, (y << 7) + 64, worldViewId));
+        h.put("getSceneLocation", (p, a) -> new net.runelite.api.Point(x, y));
+        return Fakes.fake(Tile.class, h);
+    }
+
+    private GameObject fakeGameObject(ObjectState state)
+    {
+        Map<String, Fakes.Handler> h = objectHandlers(state);
+        h.put("getOrientation", (p, a) -> 0);
+        h.put("sizeX", (p, a) -> state.size);
+        h.put("sizeY", (p, a) -> state.size);
+        GameObject obj = Fakes.fake(GameObject.class, h);
+        states.put(obj, state);
+        return obj;
+    }
+
+    private GroundObject fakeGroundObject(ObjectState state)
+    {
+        GroundObject obj = Fakes.fake(GroundObject.class, objectHandlers(state));
+        states.put(obj, state);
+        return obj;
+    }
+
+    private Map<String, Fakes.Handler> objectHandlers(ObjectState state)
+    {
+        // Larger objects are located at the centre of their footprint, like the real client
+        int localX = (state.sceneX << 7) + (state.size << 6);
+        int localY = (state.sceneY << 7) + (state.size << 6);
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getId", (p, a) -> state.id);
+        h.put("getPlane", (p, a) -> 0);
+        h.put("getLocalLocation", (p, a) -> new LocalPoint(localX, localY, worldViewId));
+        h.put("getWorldLocation", (p, a) -> new WorldPoint(baseX + state.sceneX, baseY + state.sceneY, 0));
+        h.put("getHash", (p, a) -> (long) System.identityHashCode(p));
+        h.put("getWorldView", (p, a) -> worldView);
+        Renderable renderable = Fakes.fake(Renderable.class);
+        h.put("getRenderable", (p, a) -> renderable);
+        return h;
+    }
+}
@@ -0,0 +1,179 @@
+package com.nostalactites;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal dynamic-proxy fakes for RuneLite API interfaces.
+ * <p>
+ * Only the methods given a handler do anything; every other method returns the zero value
+ * of its return type, or runs the interface's default implementation if it has one.
+ */
+final class Fakes
+{
+    /**
+     * Implementation of a single faked method.
+     */
+    interface Handler
+    {
+        Object invoke(Object proxy, Object[] args) throws Throwable;
+    }
+
+    private Fakes()
+    {
+    }
+
+    /**
+     * Creates a fake of an interface.
+     *
+     * @param type     the interface to fake
+     * @param handlers method implementations keyed by method name
+     * @param <T>      the interface type
+     * @return the fake
+     */
+    static <T> T fake(Class<T> type, Map<String, Handler> handlers)
+    {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Handler handler = handlers.get(method.getName());
+            if (handler != null)
+            {
+                return handler.invoke(self, args);
+            }
+            if (method.getDeclaringClass() == Object.class)
+            {
+                return objectMethod(self, method, args);
+            }
+            if (method.isDefault())
+            {
+                return invokeDefault(self, method, args);
+            }
+            return zero(method.getReturnType());
+        });
+        return type.cast(proxy);
+    }
+
+    /**
+     * Creates a fake of an interface with no handlers.
+     */
+    static <T> T fake(Class<T> type)
+    {
+        return fake(type, new HashMap<>());
+    }
+
+    /**
+     * Creates a fake {@link NoStalactitesConfig} backed by a map of values, falling back to the
+     * defaults. The map is read on every call, so changing it changes the config.
+     *
+     * @param values config values keyed by method name
+     * @return the fake config
+     */
+    static NoStalactitesConfig config(Map<String, Object> values)
+    {
+        Map<String, Handler> handlers = new HashMap<>();
+        for (Method method : NoStalactitesConfig.class.getMethods())
+        {
+            if (method.getParameterCount() != 0 || !method.isDefault())
+            {
+                continue;
+            }
+            String key = method.getName();
+            handlers.put(key, (p, a) -> values.containsKey(key) ? values.get(key) : invokeDefault(p, method, a));
+        }
+        return fake(NoStalactitesConfig.class, handlers);
+    }
+
+    /**
+     * Sets a private field, for injecting fakes into classes that use field injection.
+     */
+    static void inject(Object target, String name, Object value)
+    {
+        try
+        {
+            Field field = findField(target.getClass(), name);
+            field.setAccessible(true);
+            field.set(target, value);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to inject " + name, e);
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException
+    {
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+        {
+            try
+            {
+                return c.getDeclaredField(name);
+            }
+            catch (NoSuchFieldException e)
+            {
+                // keep looking in the superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+
+    private static Object invokeDefault(Object self, Method method, Object[] args) throws Throwable
+    {
+        return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+            .unreflectSpecial(method, method.getDeclaringClass())
+            .bindTo(self)
+            .invokeWithArguments(args == null ? new Object[0] : args);
+    }
+
+    private static Object objectMethod(Object self, Method method, Object[] args)
+    {
+        switch (method.getName())
+        {
+            case "equals":
+                return self == args[0];
+            case "hashCode":
+                return System.identityHashCode(self);
+            default:
+                return "Fake" + self.getClass().getInterfaces()[0].getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+        }
+    }
+
+    private static Object zero(Class<?> type)
+    {
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == double.class)
+        {
+            return 0d;
+        }
+        if (type == char.class)
+        {
+            return (char) 0;
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
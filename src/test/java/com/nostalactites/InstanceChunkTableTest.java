@@ -0,0 +1,225 @@
+package com.nostalactites;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.Scene;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+
+public class InstanceChunkTableTest
+{
+    private static final int CHUNKS = 13;
+    private static final int SIZE = CHUNKS * 8;
+    private static final int EMPTY = -1;
+
+    @Test
+    public void toWorldMatchesFromLocalInstance()
+    {
+        WorldView wv = instance(distinctChunks());
+        Client client = client(wv);
+        InstanceChunkTable table = InstanceChunkTable.build(wv);
+        for (int plane = 0; plane < 4; plane++)
+        {
+            for (int x = 0; x < SIZE; x++)
+            {
+                for (int y = 0; y < SIZE; y++)
+                {
+                    assertEquals(fromLocalInstance(client, x, y, plane), table.toWorld(x, y, plane));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rotatedChunksTurnBackToTheTemplate()
+    {
+        int[][][] chunks = new int[1][CHUNKS][CHUNKS];
+        for (int[] column : chunks[0])
+        {
+            Arrays.fill(column, EMPTY);
+        }
+        chunks[0][0][0] = template(400, 1200, 0, 1);
+        chunks[0][1][0] = template(401, 1200, 0, 3);
+        InstanceChunkTable table = InstanceChunkTable.build(instance(chunks));
+        // Rotation 1 sends (x, y) to (7 - y, x) and rotation 3 sends it to (y, 7 - x)
+        assertEquals(AnchorIndex.pack(400 * 8 + 2, 1200 * 8 + 1, 0), table.toWorld(1, 5, 0));
+        assertEquals(AnchorIndex.pack(401 * 8 + 4, 1200 * 8 + 6, 0), table.toWorld(8 + 1, 4, 0));
+    }
+
+    @Test
+    public void toSceneInvertsToWorldForEveryRotation()
+    {
+        InstanceChunkTable table = InstanceChunkTable.build(instance(distinctChunks()));
+        int[] rotations = new int[4];
+        for (int plane = 0; plane < 4; plane++)
+        {
+            for (int x = 0; x < SIZE; x++)
+            {
+                for (int y = 0; y < SIZE; y++)
+                {
+                    long world = table.toWorld(x, y, plane);
+                    int tile = table.toScene(AnchorIndex.x(world), AnchorIndex.y(world), AnchorIndex.plane(world));
+                    assertEquals(x, InstanceChunkTable.sceneX(tile));
+                    assertEquals(y, InstanceChunkTable.sceneY(tile));
+                    rotations[((x >> 3) + (y >> 3) + plane) & 3]++;
+                }
+            }
+        }
+        for (int count : rotations)
+        {
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void emptyChunksHaveNoWorldTile()
+    {
+        int[][][] chunks = distinctChunks();
+        chunks[0][3][4] = EMPTY;
+        InstanceChunkTable table = InstanceChunkTable.build(instance(chunks));
+        for (int x = 3 * 8; x < 4 * 8; x++)
+        {
+            for (int y = 4 * 8; y < 5 * 8; y++)
+            {
+                assertEquals(AnchorIndex.NO_ANCHOR, table.toWorld(x, y, 0));
+            }
+        }
+        assertEquals(AnchorIndex.NO_ANCHOR, table.toWorld(-1, 0, 0));
+        assertEquals(AnchorIndex.NO_ANCHOR, table.toWorld(SIZE, 0, 0));
+        assertEquals(AnchorIndex.NO_ANCHOR, table.toWorld(0, 0, 4));
+    }
+
+    @Test
+    public void missingPlanesAreEmpty()
+    {
+        WorldView wv = instance(new int[][][]{distinctChunks()[0]});
+        InstanceChunkTable table = InstanceChunkTable.build(wv);
+        assertEquals(fromLocalInstance(client(wv), 10, 20, 0), table.toWorld(10, 20, 0));
+        assertEquals(AnchorIndex.NO_ANCHOR, table.toWorld(10, 20, 1));
+    }
+
+    @Test
+    public void templatesOutsideTheSceneHaveNoSceneTile()
+    {
+        InstanceChunkTable table = InstanceChunkTable.build(instance(distinctChunks()));
+        assertEquals(InstanceChunkTable.NO_TILE, table.toScene(100, 100, 0));
+        assertEquals(InstanceChunkTable.NO_TILE, table.toScene(3200 * 8, 100, 0));
+    }
+
+    @Test
+    public void duplicatedTemplatesTranslateToTheFirstCopy()
+    {
+        int[][][] chunks = distinctChunks();
+        // The same template chunk copied to two scene chunks, rotated differently
+        chunks[0][2][5] = template(400, 1200, 0, 1);
+        chunks[0][9][7] = template(400, 1200, 0, 3);
+        WorldView wv = instance(chunks);
+        Client client = client(wv);
+        InstanceChunkTable table = InstanceChunkTable.build(wv);
+        for (int dx = 0; dx < 8; dx++)
+        {
+            for (int dy = 0; dy < 8; dy++)
+            {
+                int firstX = 2 * 8 + dx;
+                int firstY = 5 * 8 + dy;
+                long first = table.toWorld(firstX, firstY, 0);
+                assertEquals(fromLocalInstance(client, firstX, firstY, 0), first);
+                assertEquals(firstX, InstanceChunkTable.sceneX(toScene(table, first)));
+                assertEquals(firstY, InstanceChunkTable.sceneY(toScene(table, first)));
+
+                long second = table.toWorld(9 * 8 + dx, 7 * 8 + dy, 0);
+                assertEquals(fromLocalInstance(client, 9 * 8 + dx, 7 * 8 + dy, 0), second);
+                int tile = toScene(table, second);
+                assertEquals(2, InstanceChunkTable.sceneX(tile) >> 3);
+                assertEquals(5, InstanceChunkTable.sceneY(tile) >> 3);
+                assertEquals(second, table.toWorld(InstanceChunkTable.sceneX(tile), InstanceChunkTable.sceneY(tile), 0));
+            }
+        }
+    }
+
+    @Test
+    public void outsideInstancesTilesAreOffsetByTheBase()
+    {
+        InstanceChunkTable table = InstanceChunkTable.build(worldView(false, null));
+        assertEquals(AnchorIndex.pack(3200 + 5, 3300 + 7, 1), table.toWorld(5, 7, 1));
+        int tile = table.toScene(3200 + 5, 3300 + 7, 1);
+        assertEquals(5, InstanceChunkTable.sceneX(tile));
+        assertEquals(7, InstanceChunkTable.sceneY(tile));
+        assertEquals(InstanceChunkTable.NO_TILE, table.toScene(3199, 3300, 0));
+        assertEquals(InstanceChunkTable.NO_TILE, table.toScene(3200 + SIZE, 3300, 0));
+    }
+
+    private static int toScene(InstanceChunkTable table, long world)
+    {
+        return table.toScene(AnchorIndex.x(world), AnchorIndex.y(world), AnchorIndex.plane(world));
+    }
+
+    /**
+     * Every scene chunk copied from its own template chunk, with all four rotations and
+     * template planes in use.
+     */
+    private static int[][][] distinctChunks()
+    {
+        int[][][] chunks = new int[4][CHUNKS][CHUNKS];
+        for (int z = 0; z < 4; z++)
+        {
+            for (int cx = 0; cx < CHUNKS; cx++)
+            {
+                for (int cy = 0; cy < CHUNKS; cy++)
+                {
+                    chunks[z][cx][cy] = template(300 + z * CHUNKS + cx, 1100 + cy, (z + cx) & 3, (cx + cy + z) & 3);
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private static int template(int chunkX, int chunkY, int plane, int rotation)
+    {
+        return (plane << 24) | (chunkX << 14) | (chunkY << 3) | (rotation << 1);
+    }
+
+    /**
+     * The template tile {@code WorldPoint.fromLocalInstance} gives for a scene tile, as reference.
+     */
+    private static long fromLocalInstance(Client client, int sceneX, int sceneY, int plane)
+    {
+        LocalPoint local = new LocalPoint((sceneX << 7) + 64, (sceneY << 7) + 64, -1);
+        WorldPoint wp = WorldPoint.fromLocalInstance(client, local, plane);
+        return AnchorIndex.pack(wp.getX(), wp.getY(), wp.getPlane());
+    }
+
+    private static Client client(WorldView wv)
+    {
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getWorldView", (p, a) -> wv);
+        h.put("getTopLevelWorldView", (p, a) -> wv);
+        return Fakes.fake(Client.class, h);
+    }
+
+    private static WorldView instance(int[][][] chunks)
+    {
+        return worldView(true, chunks);
+    }
+
+    private static WorldView worldView(boolean instance, int[][][] chunks)
+    {
+        Scene scene = Fakes.fake(Scene.class);
+        Map<String, Fakes.Handler> h = new HashMap<>();
+        h.put("getScene", (p, a) -> scene);
+        h.put("isInstance", (p, a) -> instance);
+        h.put("getInstanceTemplateChunks", (p, a) -> chunks);
+        h.put("getBaseX", (p, a) -> 3200);
+        h.put("getBaseY", (p, a) -> 3300);
+        h.put("getSizeX", (p, a) -> SIZE);
+        h.put("getSizeY", (p, a) -> SIZE);
+        return Fakes.fake(WorldView.class, h);
+    }
+}
@@ -0,0 +1,138 @@
+package com.nostalactites;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.GameState;
+import net.runelite.api.RuneLiteObject;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.GameStateChanged;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NoStalactitesPluginTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeScene scene;
+    private FakeClient client;
+    private final Map<String, Object> config = new HashMap<>();
+
+    @Before
+    public void setUp()
+    {
+        scene = new FakeScene(104, 3200, 3200, 0.02, 0.05, 3);
+        client = new FakeClient(scene);
+        config.put("sweepBudget", 0);
+    }
+
+    @Test
+    public void startupKeepsCachedAnchorsWhileFramesRenderBetweenSteps()
+    {
+        int cached = cacheSceneAnchors();
+
+        NoStalactitesPlugin plugin = newPlugin();
+        plugin.startUp();
+        int placed = 0;
+        while (plugin.isStartUpPending())
+        {
+            client.runPendingInvokes();
+            // The client keeps rendering frames between startup steps
+            plugin.onBeforeRender(BeforeRender.INSTANCE);
+            int anchors = plugin.getColumnAnchors().size();
+            assertTrue("cached anchors were dropped during startup", anchors >= placed);
+            placed = anchors;
+            Thread.onSpinWait();
+        }
+        assertEquals(cached, placed);
+
+        settle(plugin);
+        assertEquals(scene.getColumnCount(), plugin.getColumnAnchors().size());
+    }
+
+    @Test
+    public void reconnectingKeepsTheScenesAnchors()
+    {
+        NoStalactitesPlugin plugin = newPlugin();
+        plugin.startUp();
+        client.awaitStartUp(plugin);
+        settle(plugin);
+        int anchors = plugin.getColumnAnchors().size();
+        int active = client.getActiveObjects();
+        assertTrue(anchors > 0);
+
+        // The map does not reload, so no spawn events follow
+        gameStateChanged(plugin, GameState.CONNECTION_LOST);
+        settle(plugin);
+        gameStateChanged(plugin, GameState.LOGGED_IN);
+        settle(plugin);
+
+        assertEquals(anchors, plugin.getColumnAnchors().size());
+        assertEquals(active, client.getActiveObjects());
+    }
+
+    /**
+     * Starts a plugin on the scene to learn its column anchors, then stores them in the
+     * anchor cache later plugins read, and puts the scene back as it was.
+     *
+     * @return the number of anchors cached
+     */
+    private int cacheSceneAnchors()
+    {
+        NoStalactitesPlugin plugin = client.newPlugin(config);
+        plugin.startUp();
+        client.awaitStartUp(plugin);
+        settle(plugin);
+        AnchorIndex<List<RuneLiteObject>> anchors = plugin.getColumnAnchors();
+        assertEquals(scene.getColumnCount(), anchors.size());
+        assertTrue(anchors.size() > 0);
+
+        AnchorDiskCache cache = new AnchorDiskCache(folder.getRoot().toPath(), client.getClient().getRevision(),
+            new ObjectRuleCatalog(new Gson()).fingerprint());
+        for (int region : scene.getMapRegions())
+        {
+            cache.put(region, anchors.anchorsInRegion(region));
+        }
+        cache.write(cache.encode());
+        int count = anchors.size();
+
+        plugin.shutDown();
+        client.runPendingInvokes();
+        scene.reset();
+        return count;
+    }
+
+    private void gameStateChanged(NoStalactitesPlugin plugin, GameState state)
+    {
+        client.setGameState(state);
+        GameStateChanged event = new GameStateChanged();
+        event.setGameState(state);
+        plugin.onGameStateChanged(event);
+    }
+
+    private NoStalactitesPlugin newPlugin()
+    {
+        NoStalactitesPlugin plugin = client.newPlugin(config);
+        Fakes.inject(plugin, "anchorCacheDirectory", folder.getRoot());
+        return plugin;
+    }
+
+    /**
+     * Renders frames until the sweep and anchor checks of the loaded scene are done.
+     */
+    private void settle(NoStalactitesPlugin plugin)
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            plugin.onBeforeRender(BeforeRender.INSTANCE);
+            client.runPendingInvokes();
+        }
+    }
+}
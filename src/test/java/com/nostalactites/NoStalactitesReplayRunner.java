@@ -0,0 +1,362 @@
+package com.nostalactites;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.GroundObject;
+import net.runelite.api.Tile;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.PreMapLoad;
+import net.runelite.api.events.WorldViewLoaded;
+import net.runelite.api.events.WorldViewUnloaded;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.events.ConfigChanged;
+
+/**
+ * Headless soak test: replays spawn, despawn, config-change and region-change events through
+ * the plugin's subscribers against a {@link FakeClient}, without a live client.
+ * <p>
+ * Reports latency percentiles and allocation per event type, plus live replacement and
+ * anchor counts, and exits with a non-zero status if the plugin holds on to more anchors
+ * or replacement objects than the current scene accounts for.
+ * <pre>
+ * ./gradlew replay                                 # synthetic, 2000 region transitions
+ * ./gradlew replay --args="--transitions 10000"
+ * ./gradlew replay --args="--script events.txt"     # see {@link ReplayScript}
+ * </pre>
+ */
+public class NoStalactitesReplayRunner
+{
+    private static final int REPLACEMENTS_PER_ANCHOR = 4;
+
+    private final FakeClient client;
+    private final EventBus eventBus = new EventBus();
+    private final Map<String, Object> config = new HashMap<>();
+    private final NoStalactitesPlugin plugin;
+    private final Map<String, FakeScene> scenes = new HashMap<>();
+    private final Map<Integer, FakeScene> subViews = new HashMap<>();
+    private final Map<String, EventStats> stats = new LinkedHashMap<>();
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Random random = new Random(7);
+
+    private int transitions;
+    private int maxAnchors;
+    private int maxActive;
+    private final List<String> failures = new ArrayList<>();
+
+    private NoStalactitesReplayRunner()
+    {
+        client = new FakeClient(new FakeScene(8, 0, 0, 0, 0, 0));
+        config.put("sweepBudget", 0);
+        plugin = client.newPlugin(config);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int transitions = 2000;
+        String script = null;
+        for (int i = 0; i < args.length; i++)
+        {
+            if ("--transitions".equals(args[i]))
+            {
+                transitions = Integer.parseInt(args[++i]);
+            }
+            else if ("--script".equals(args[i]))
+            {
+                script = args[++i];
+            }
+        }
+
+        List<ReplayScript.Command> commands = script != null
+            ? ReplayScript.read(Paths.get(script))
+            : ReplayScript.synthetic(transitions, 1L);
+
+        NoStalactitesReplayRunner runner = new NoStalactitesReplayRunner();
+        boolean ok = runner.run(commands);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private boolean run(List<ReplayScript.Command> commands) throws Exception
+    {
+        eventBus.register(plugin);
+        plugin.startUp();
+        client.awaitStartUp(plugin);
+
+        for (ReplayScript.Command command : commands)
+        {
+            switch (command.name)
+            {
+                case "region":
+                    loadRegion(command);
+                    break;
+                case "config":
+                    changeConfig(command.args[0], command.valueArg(1));
+                    break;
+                case "despawn":
+                    despawnColumns(command.intArg(0));
+                    break;
+                case "worldview":
+                    loadWorldView(command);
+                    break;
+                case "unload":
+                    unloadWorldView(command.intArg(0));
+                    break;
+                case "frames":
+                    for (int i = 0; i < command.intArg(0); i++)
+                    {
+                        frame();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command);
+            }
+        }
+
+        plugin.shutDown();
+        client.runPendingInvokes();
+        check("after shutdown", 0);
+        report();
+        return failures.isEmpty();
+    }
+
+    private void loadRegion(ReplayScript.Command command)
+    {
+        String key = String.join(" ", command.args);
+        FakeScene scene = scenes.computeIfAbsent(key, k -> new FakeScene(
+            command.intArg(2), command.intArg(0), command.intArg(1),
+            command.doubleArg(3), command.doubleArg(4), command.longArg(5)));
+        loadScene(scene);
+        transitions++;
+    }
+
+    private void loadScene(FakeScene scene)
+    {
+        scene.reset();
+        client.setGameState(GameState.LOADING);
+        post("loading", gameStateChanged(GameState.LOADING));
+        client.setScene(scene);
+        post("preMapLoad", new PreMapLoad(scene.getWorldView(), scene.getScene()));
+
+        // Like the client, only objects still in the scene after the pre-load spawn
+        for (GameObject obj : scene.getGameObjects())
+        {
+            if (!scene.isPresent(obj))
+            {
+                continue;
+            }
+            GameObjectSpawned event = new GameObjectSpawned();
+            event.setTile(scene.tileOf(obj));
+            event.setGameObject(obj);
+            post("gameObjectSpawned", event);
+        }
+        for (GroundObject obj : scene.getGroundObjects())
+        {
+            if (!scene.isPresent(obj))
+            {
+                continue;
+            }
+            GroundObjectSpawned event = new GroundObjectSpawned();
+            event.setTile(scene.tileOf(obj));
+            event.setGroundObject(obj);
+            post("groundObjectSpawned", event);
+        }
+
+        // The client keeps rendering frames while the scene loads
+        frame();
+
+        client.setGameState(GameState.LOGGED_IN);
+        post("loggedIn", gameStateChanged(GameState.LOGGED_IN));
+        frame();
+        check("after loading " + scene.getBaseX() + "," + scene.getBaseY(), scene.getColumnCount());
+    }
+
+    private void loadWorldView(ReplayScript.Command command)
+    {
+        int id = command.intArg(0);
+        // The client unloads a world view before reusing its id
+        unloadWorldView(id);
+        FakeScene scene = new FakeScene(command.intArg(1), 0, 0, command.doubleArg(2), 0, command.longArg(3), id);
+        client.addWorldView(scene.getWorldView());
+        subViews.put(id, scene);
+        for (GameObject obj : scene.getGameObjects())
+        {
+            GameObjectSpawned event = new GameObjectSpawned();
+            event.setTile(scene.tileOf(obj));
+            event.setGameObject(obj);
+            post("gameObjectSpawned", event);
+        }
+        post("worldViewLoaded", new WorldViewLoaded(scene.getWorldView()));
+        frame();
+        check("after loading world view " + id, client.getScene().getColumnCount());
+    }
+
+    private void unloadWorldView(int id)
+    {
+        FakeScene scene = subViews.remove(id);
+        if (scene == null)
+        {
+            return;
+        }
+        post("worldViewUnloaded", new WorldViewUnloaded(scene.getWorldView()));
+        client.removeWorldView(id);
+        frame();
+        check("after unloading world view " + id, client.getScene().getColumnCount());
+    }
+
+    private void changeConfig(String key, Object value)
+    {
+        Object old = config.put(key, value);
+        ConfigChanged event = new ConfigChanged();
+        event.setGroup("nostalactites");
+        event.setKey(key);
+        event.setOldValue(String.valueOf(old));
+        event.setNewValue(String.valueOf(value));
+        post("configChanged", event);
+        client.runPendingInvokes();
+
+        // The plugin asks for a reload when it cannot restore objects in place
+        if (client.getClient().getGameState() == GameState.LOADING)
+        {
+            loadScene(client.getScene());
+        }
+    }
+
+    private void despawnColumns(int count)
+    {
+        FakeScene scene = client.getScene();
+        List<GameObject> columns = new ArrayList<>();
+        for (GameObject obj : scene.getGameObjects())
+        {
+            if (obj.getId() == FakeScene.COLUMN_ID)
+            {
+                columns.add(obj);
+            }
+        }
+        for (int i = 0; i < count && !columns.isEmpty(); i++)
+        {
+            GameObject obj = columns.remove(random.nextInt(columns.size()));
+            Tile tile = scene.tileOf(obj);
+            GameObjectDespawned event = new GameObjectDespawned();
+            event.setTile(tile);
+            event.setGameObject(obj);
+            post("gameObjectDespawned", event);
+        }
+    }
+
+    private void frame()
+    {
+        post("beforeRender", BeforeRender.INSTANCE);
+        client.runPendingInvokes();
+    }
+
+    private void post(String type, Object event)
+    {
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        eventBus.post(event);
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        stats.computeIfAbsent(type, t -> new EventStats()).add(elapsed, allocated);
+    }
+
+    private void check(String when, int columnsInScene)
+    {
+        int anchors = plugin.getColumnAnchors().size();
+        int active = client.getActiveObjects();
+        maxAnchors = Math.max(maxAnchors, anchors);
+        maxActive = Math.max(maxActive, active);
+        if (anchors > columnsInScene)
+        {
+            failures.add(String.format("%s: %d anchors for %d columns in scene", when, anchors, columnsInScene));
+        }
+        // Loaded sub world views may each hold replacements for all of their columns
+        int subViewColumns = 0;
+        for (FakeScene scene : subViews.values())
+        {
+            subViewColumns += scene.getColumnCount();
+        }
+        if (active > (anchors + subViewColumns) * REPLACEMENTS_PER_ANCHOR)
+        {
+            failures.add(String.format("%s: %d active replacements for %d anchors and %d sub world view columns",
+                when, active, anchors, subViewColumns));
+        }
+    }
+
+    private void report()
+    {
+        System.out.printf("Replayed %d region transitions%n%n", transitions);
+        System.out.printf("%-22s %9s %10s %10s %10s %10s %12s%n",
+            "event", "count", "p50 us", "p90 us", "p99 us", "max us", "alloc B/evt");
+        stats.forEach((type, s) -> System.out.printf("%-22s %9d %10.1f %10.1f %10.1f %10.1f %12d%n",
+            type, s.count, s.percentile(50), s.percentile(90), s.percentile(99), s.percentile(100),
+            s.count > 0 ? s.allocated / s.count : 0));
+        System.out.printf("%nPeak anchors: %d, peak active replacements: %d, replacement objects created: %d%n",
+            maxAnchors, maxActive, client.getCreatedObjects());
+        System.out.printf("Live at exit: %d anchors, %d active replacements%n",
+            plugin.getColumnAnchors().size(), client.getActiveObjects());
+
+        if (failures.isEmpty())
+        {
+            System.out.println("OK");
+            return;
+        }
+        System.out.printf("%nFAILED (%d checks)%n", failures.size());
+        failures.stream().limit(20).forEach(f -> System.out.println("  " + f));
+    }
+
+    private static GameStateChanged gameStateChanged(GameState state)
+    {
+        GameStateChanged event = new GameStateChanged();
+        event.setGameState(state);
+        return event;
+    }
+
+    /**
+     * Latency samples and total allocation for one event type.
+     */
+    private static final class EventStats
+    {
+        private long[] nanos = new long[1024];
+        private int count;
+        private long allocated;
+
+        void add(long elapsed, long bytes)
+        {
+            if (count == nanos.length)
+            {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+            allocated += bytes;
+        }
+
+        /**
+         * @return the given percentile of the latency samples, in microseconds
+         */
+        double percentile(int p)
+        {
+            if (count == 0)
+            {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int index = Math.min(count - 1, (int) Math.ceil(p / 100.0 * count) - 1);
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+    }
+}
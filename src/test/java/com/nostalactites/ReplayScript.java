@@ -0,0 +1,166 @@
+package com.nostalactites;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A stream of events for the replay harness, either recorded in a file or generated.
+ * <p>
+ * The recorded format is one command per line; blank lines and lines starting with
+ * {@code #} are ignored:
+ * <pre>
+ * region &lt;baseX&gt; &lt;baseY&gt; &lt;size&gt; &lt;columnDensity&gt; &lt;stalactiteDensity&gt; &lt;seed&gt;
+ * config &lt;key&gt; &lt;true|false|number&gt;
+ * despawn &lt;count&gt;
+ * frames &lt;count&gt;
+ * worldview &lt;id&gt; &lt;size&gt; &lt;columnDensity&gt; &lt;seed&gt;
+ * unload &lt;id&gt;
+ * </pre>
+ * {@code region} loads a scene, posting its spawn events; {@code despawn} posts despawn
+ * events for that many columns of the current scene. {@code worldview} loads a sub world
+ * view with its own scene, such as a boat, and {@code unload} unloads it again.
+ */
+final class ReplayScript
+{
+    /**
+     * A single command of the script.
+     */
+    static final class Command
+    {
+        final String name;
+        final String[] args;
+
+        Command(String name, String... args)
+        {
+            this.name = name;
+            this.args = args;
+        }
+
+        int intArg(int index)
+        {
+            return Integer.parseInt(args[index]);
+        }
+
+        long longArg(int index)
+        {
+            return Long.parseLong(args[index]);
+        }
+
+        double doubleArg(int index)
+        {
+            return Double.parseDouble(args[index]);
+        }
+
+        /**
+         * @return the argument as a boolean or integer config value
+         */
+        Object valueArg(int index)
+        {
+            String value = args[index];
+            if ("true".equals(value) || "false".equals(value))
+            {
+                return Boolean.parseBoolean(value);
+            }
+            return Integer.parseInt(value);
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + " " + String.join(" ", args);
+        }
+    }
+
+    private ReplayScript()
+    {
+    }
+
+    /**
+     * Reads a recorded script.
+     */
+    static List<Command> read(Path path) throws IOException
+    {
+        List<Command> commands = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                String[] args = new String[parts.length - 1];
+                System.arraycopy(parts, 1, args, 0, args.length);
+                commands.add(new Command(parts[0], args));
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Generates a script that moves between a fixed set of cave and overworld regions,
+     * with occasional despawns, config toggles and sub world views in between.
+     *
+     * @param transitions the number of region transitions
+     * @param seed        the random seed
+     * @return the generated script
+     */
+    static List<Command> synthetic(int transitions, long seed)
+    {
+        // Regions are spaced far enough apart that their scenes never share a map region
+        String[][] regions = {
+            {"2560", "9984", "104", "0.03", "0.02", "1"},
+            {"2816", "9984", "104", "0.01", "0.05", "2"},
+            {"3072", "9984", "104", "0.05", "0.01", "3"},
+            {"3328", "9984", "104", "0.02", "0.02", "4"},
+            {"3200", "3200", "104", "0.0", "0.0", "5"},
+            {"2944", "3328", "104", "0.0", "0.0", "6"},
+        };
+        String[][] toggles = {
+            {"replaceWithRocks", "false"},
+            {"replaceWithRocks", "true"},
+            {"hideStalactites", "false"},
+            {"hideStalactites", "true"},
+            {"mergeReplacements", "true"},
+            {"mergeReplacements", "false"},
+        };
+
+        Random random = new Random(seed);
+        List<Command> commands = new ArrayList<>();
+        int toggle = 0;
+        for (int i = 0; i < transitions; i++)
+        {
+            if (i > 0 && random.nextInt(8) == 0)
+            {
+                commands.add(new Command("unload", "1"));
+            }
+            commands.add(new Command("region", regions[random.nextInt(regions.length)]));
+            commands.add(new Command("frames", "3"));
+            if (random.nextInt(8) == 0)
+            {
+                commands.add(new Command("worldview", "1", "24", "0.05", Integer.toString(i)));
+                commands.add(new Command("frames", "3"));
+            }
+            if (random.nextInt(4) == 0)
+            {
+                commands.add(new Command("despawn", Integer.toString(1 + random.nextInt(4))));
+            }
+            if (random.nextInt(10) == 0)
+            {
+                String[] change = toggles[toggle++ % toggles.length];
+                commands.add(new Command("config", change));
+                commands.add(new Command("frames", "3"));
+            }
+        }
+        return commands;
+    }
+}